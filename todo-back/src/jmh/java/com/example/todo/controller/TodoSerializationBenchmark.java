@@ -0,0 +1,58 @@
+package com.example.todo.controller;
+
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import com.example.todo.entity.Todo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一覧 API のレスポンスとなる TodoView リストの JSON シリアライズ。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TodoSerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<TodoView> todos;
+
+    @Setup
+    public void setup() {
+        // Spring Boot の既定と同じく JavaTimeModule を登録し、日時は ISO 文字列で出力する
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        todos = new ArrayList<>(size);
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            Todo todo = new Todo("Task number " + i, 1L, TaskType.CODING, Priority.HIGH, start.plusHours(i), Frequency.DAILY, "office");
+            todo.setPredictedCompletionTime(30 + i % 60);
+            todos.add(TodoView.from(todo));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(todos);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TodoFeatures;
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PredictCompletionTimeBenchmark {
+
+    private CompletionTimePredictor predictor;
+    private LocalDateTime startTime;
+
+    @Setup
+    public void setup() {
+        // 予測・学習はリポジトリを使わない
+        predictor = new CompletionTimePredictor(null, null, 5, 100_000, "", new SimpleMeterRegistry());
+        startTime = LocalDateTime.of(2025, 1, 1, 7, 30);
+        // ユーザー 1 には学習済みの統計を持たせる
+        for (int i = 0; i < 100; i++) {
+            predictor.learn(new TodoFeatures() {
+                public Long getId() { return 1L; }
+                public Long getUserId() { return 1L; }
+                public TaskType getTaskType() { return TaskType.EXERCISE; }
+                public Priority getPriority() { return Priority.LOW; }
+                public Frequency getFrequency() { return Frequency.WEEKLY; }
+                public String getContext() { return "home"; }
+                public LocalDateTime getStartTime() { return startTime; }
+                public boolean isCompleted() { return true; }
+                public Integer getActualCompletionTime() { return 40; }
+            }, 30 + i % 20, 1);
+        }
+    }
+
+    @Benchmark
+    public Integer predictLearnedUser() {
+        return predictor.predict(1L, "Write the quarterly report", TaskType.EXERCISE, Priority.LOW,
+                startTime, Frequency.WEEKLY, "home");
+    }
+
+    @Benchmark
+    public Integer predictUnknownUser() {
+        return predictor.predict(2L, "Misc", null, null, startTime, null, null);
+    }
+}
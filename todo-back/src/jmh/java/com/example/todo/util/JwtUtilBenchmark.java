@@ -0,0 +1,56 @@
+package com.example.todo.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        String secret = Base64.getEncoder().encodeToString(new byte[32]);
+        JwtKeyRing keyRing = new JwtKeyRing(() -> "bench:" + secret, () -> "bench", "", "", "",
+                Duration.ZERO, Duration.ofDays(1), Clock.systemUTC());
+        keyRing.init();
+
+        cachedJwtUtil = new JwtUtil(keyRing, 10_000, new SimpleMeterRegistry());
+        cachedJwtUtil.init();
+        // キャッシュサイズ 0 で毎回フル検証させる
+        uncachedJwtUtil = new JwtUtil(keyRing, 0, new SimpleMeterRegistry());
+        uncachedJwtUtil.init();
+
+        token = cachedJwtUtil.generateToken("bench-user", 42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtUtil.generateToken("bench-user", 42L);
+    }
+
+    @Benchmark
+    public Object validateTokenCached() {
+        return cachedJwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Object validateTokenUncached() {
+        return uncachedJwtUtil.validateToken(token);
+    }
+}
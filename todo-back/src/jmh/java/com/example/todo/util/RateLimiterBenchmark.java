@@ -0,0 +1,52 @@
+package com.example.todo.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * リクエストごとの流量制限の判定コスト（目標は 32 スレッドで 1 µs 未満）。
+ * 拒否されずに判定まで通るよう、補充量は十分大きくしてある。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(32)
+public class RateLimiterBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private RateLimiter limiter;
+    private Long[] userIds;
+
+    @Setup
+    public void setup() {
+        limiter = new RateLimiter(1_000_000_000, 1_000_000, Duration.ofMinutes(10), 100_000);
+        userIds = new Long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = (long) i;
+            limiter.tryAcquire(userIds[i]);
+        }
+    }
+
+    // 多数のユーザーに分散したアクセス
+    @Benchmark
+    public long manyUsers() {
+        return limiter.tryAcquire(userIds[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    // 1ユーザーに集中したアクセス（同じバケットへの CAS が競合する）
+    @Benchmark
+    public long singleHotUser() {
+        return limiter.tryAcquire(userIds[0]);
+    }
+}
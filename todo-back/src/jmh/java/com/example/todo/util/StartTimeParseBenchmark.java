@@ -0,0 +1,41 @@
+package com.example.todo.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TodoController.addTodo の startTime パース。
+ * 以前はリクエストごとに DateTimeFormatterBuilder でフォーマッターを構築していた。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StartTimeParseBenchmark {
+
+    private final String value = "2025-03-14T09:26:53";
+
+    @Benchmark
+    public LocalDateTime buildFormatterAndParse() {
+        DateTimeFormatter formatter = new DateTimeFormatterBuilder()
+                .appendPattern("yyyy-MM-dd'T'HH:mm")
+                .optionalStart()
+                .appendPattern(":ss")
+                .optionalEnd()
+                .toFormatter();
+        return LocalDateTime.parse(value, formatter);
+    }
+
+    @Benchmark
+    public LocalDateTime parseWithSharedFormatter() {
+        return DateTimeUtil.parseStartTime(value);
+    }
+}
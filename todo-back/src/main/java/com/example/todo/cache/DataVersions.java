@@ -0,0 +1,72 @@
+package com.example.todo.cache;
+
+import com.example.todo.config.ReplicaStickiness;
+import com.example.todo.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * ユーザーごとのデータ版数。一覧 API の ETag に使う。
+ *
+ * 変更時は同じトランザクション内で DB 上の版数を +1 し（SyncService から呼ばれる）、コミット（またはロールバック）後に
+ * メモリ上の値を破棄する。メモリにない場合のみ DB から読み込むため、変更がない間の条件付き GET は DB に触れない。
+ * 再起動後も DB の値から再開するので、版数が巻き戻って古い ETag と一致することはない。
+ * 破棄はノード内でしか伝わらないため、他のノードで書き込まれた版数は ttl 以内に読み直して反映する。
+ */
+@Component
+public class DataVersions {
+
+    private final UserRepository userRepository;
+    private final ObjectProvider<ReplicaStickiness> replicaStickiness;
+    private final Cache<Long, Long> versions;
+
+    public DataVersions(UserRepository userRepository, ObjectProvider<ReplicaStickiness> replicaStickiness,
+                        @Value("${todo.cache.versions.maximum-size:100000}") long maximumSize,
+                        @Value("${todo.cache.versions.ttl:PT5S}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.replicaStickiness = replicaStickiness;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public long current(Long userId) {
+        return versions.get(userId, id -> {
+            Long version = userRepository.findDataVersion(id);
+            return version != null ? version : 0L;
+        });
+    }
+
+    // 強い ETag（同じ版数なら一覧の内容は同じ）。読み書き分離時は、この版数に追いついたレプリカだけから本文を読む
+    public String etag(Long userId) {
+        long version = current(userId);
+        replicaStickiness.ifAvailable(stickiness -> stickiness.requireVersion(userId, version));
+        return "\"" + userId + "-" + version + "\"";
+    }
+
+    // 版数を +1 して新しい値を返す。呼び出し元のトランザクション内で行ロックを取るため、同じユーザーの変更は版数順にコミットされる。
+    // メモリ上の値はコミット（またはロールバック）後に破棄する
+    public long increment(Long userId) {
+        userRepository.incrementDataVersion(userId);
+        long version = userRepository.findDataVersion(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.invalidate(userId);
+                }
+            });
+        } else {
+            versions.invalidate(userId);
+        }
+        return version;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.todo.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ユーザー単位の一覧キャッシュ。キーは (userId, folderId, view)。
+ *
+ * 書き込み時はユーザーの全ビューをまとめて破棄する。読み込み中に書き込みが割り込んだ場合に
+ * 古い一覧を格納しないよう、ユーザーごとの世代番号を読み込み前後で比較してから格納する。
+ *
+ * 各エントリには読み込み前のデータ版数を記録し、版数が変わっていれば読み直す。
+ * 他のノードでの書き込みはこのノードの破棄を通らないが、版数（DataVersions の ttl 以内に反映される）で検知できる。
+ * そのため、ETag（版数）より古い一覧を返すことはない。
+ *
+ * ID 指定の UPDATE/DELETE だけで済む更新のために、エンティティ ID から所有ユーザーへの対応も保持する。
+ */
+@Component
+public class UserListCache {
+
+    public enum View { ALL, FOLDER, UNASSIGNED, FOLDERS, STATS }
+
+    private record ViewKey(Long folderId, View view) { }
+
+    private record Entry(List<?> items, long version, long loadedAt) { }
+
+    private record OwnerKey(Class<?> type, Long id) { }
+
+    private static final int STRIPES = 1024;
+
+    private final DataVersions dataVersions;
+    private final Cache<Long, Map<ViewKey, Entry>> cache;
+    private final Cache<OwnerKey, Long> owners;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public UserListCache(DataVersions dataVersions,
+                         @Value("${todo.cache.lists.maximum-weight:200000}") long maximumWeight,
+                         @Value("${todo.cache.lists.ttl:PT5M}") Duration ttl,
+                         @Value("${todo.cache.owners.maximum-size:500000}") long ownersMaximumSize,
+                         MeterRegistry meterRegistry) {
+        this.dataVersions = dataVersions;
+        this.ttlNanos = ttl.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long userId, Map<ViewKey, Entry> views) ->
+                        1 + views.values().stream().mapToInt(e -> e.items().size()).sum())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // 所有者は変わらないため TTL は不要
+        this.owners = Caffeine.newBuilder()
+                .maximumSize(ownersMaximumSize)
+                .build();
+
+        FunctionCounter.builder("todo.cache.lists.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("todo.cache.lists.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("todo.cache.lists.evictions", cache, c -> c.stats().evictionCount())
+                .register(meterRegistry);
+        Gauge.builder("todo.cache.lists.users", cache, Cache::estimatedSize)
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Long userId, Long folderId, View view, Supplier<List<T>> loader) {
+        if (userId == null) {
+            return loader.get();
+        }
+        ViewKey key = new ViewKey(folderId, view);
+        long version = dataVersions.current(userId);
+        Map<ViewKey, Entry> views = cache.asMap().get(userId);
+        Entry cached = views != null ? views.get(key) : null;
+        if (cached != null && cached.version() == version && System.nanoTime() - cached.loadedAt() < ttlNanos) {
+            hits.increment();
+            return (List<T>) cached.items();
+        }
+        misses.increment();
+
+        int stripe = stripe(userId);
+        long generation = generations.get(stripe);
+        List<T> loaded = List.copyOf(loader.get());
+        Entry entry = new Entry(loaded, version, System.nanoTime());
+        cache.asMap().compute(userId, (id, current) -> {
+            // 読み込み中に書き込みがあった場合は格納しない
+            if (generations.get(stripe) != generation) {
+                return current;
+            }
+            Map<ViewKey, Entry> next = current != null ? new HashMap<>(current) : new HashMap<>();
+            next.put(key, entry);
+            return Map.copyOf(next);
+        });
+        return loaded;
+    }
+
+    // ユーザーの全ビューを破棄する。トランザクション中であればコミット（またはロールバック）後にも再度破棄する
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    public void rememberOwner(Class<?> type, Long id, Long userId) {
+        if (id != null && userId != null) {
+            owners.put(new OwnerKey(type, id), userId);
+        }
+    }
+
+    // エンティティの所有ユーザーを返す。所有者が未登録の場合のみ ownerLookup で DB を引く
+    public Long owner(Class<?> type, Long id, Supplier<Long> ownerLookup) {
+        return owners.get(new OwnerKey(type, id), key -> ownerLookup.get());
+    }
+
+    // エンティティの所有ユーザーの一覧を破棄し、所有ユーザーを返す
+    public Long invalidateOwner(Class<?> type, Long id, Supplier<Long> ownerLookup) {
+        Long userId = owner(type, id, ownerLookup);
+        invalidate(userId);
+        return userId;
+    }
+
+    public void forgetOwner(Class<?> type, Long id) {
+        owners.invalidate(new OwnerKey(type, id));
+    }
+
+    private void evict(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+}
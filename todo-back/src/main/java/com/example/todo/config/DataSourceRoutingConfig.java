@@ -0,0 +1,90 @@
+package com.example.todo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 読み書き分離（todo.datasource.replicas.enabled=true の場合のみ）。
+ *
+ * アプリケーションが使う DataSource は LazyConnectionDataSourceProxy で、物理接続の取得を最初の SQL まで遅らせる。
+ * その時点で接続が読み取り専用（@Transactional(readOnly = true) や Spring Data の検索メソッド）であれば
+ * ReplicaDataSource から、それ以外はプライマリから取得する。
+ * Flyway や Hibernate の起動時の処理は読み取り専用ではないためプライマリに接続する。
+ */
+@Configuration
+@ConditionalOnProperty(name = "todo.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // 書き込み直後の読み込みがプライマリに向かうよう、sticky-window は遅延の上限（max-lag + health-interval）より長くする
+    @Bean
+    public ReplicaStickiness replicaStickiness(@Value("${todo.datasource.replicas.sticky-window:PT5S}") Duration window,
+                                               @Value("${todo.datasource.replicas.sticky-maximum-size:100000}") long maximumSize,
+                                               @Value("${todo.datasource.replicas.health-interval:PT1S}") Duration healthInterval,
+                                               @Value("${todo.datasource.replicas.max-lag:PT3S}") Duration maxLag) {
+        if (maxLag.compareTo(healthInterval) <= 0) {
+            throw new IllegalStateException("todo.datasource.replicas.max-lag must be longer than health-interval");
+        }
+        if (window.compareTo(maxLag.plus(healthInterval)) <= 0) {
+            throw new IllegalStateException("todo.datasource.replicas.sticky-window must be longer than max-lag + health-interval");
+        }
+        return new ReplicaStickiness(window, maximumSize);
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(HikariDataSource primaryDataSource, DataSourceProperties properties,
+                                               ReplicaStickiness replicaStickiness,
+                                               @Value("${todo.datasource.replicas.urls}") List<String> urls,
+                                               @Value("${todo.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+                                               @Value("${todo.datasource.replicas.connection-timeout:PT2S}") Duration connectionTimeout,
+                                               @Value("${todo.datasource.replicas.health-interval:PT1S}") Duration healthInterval,
+                                               @Value("${todo.datasource.replicas.max-lag:PT3S}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class).url(url).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setMaximumPoolSize(maximumPoolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            // レプリカが停止していても起動できるようにする（ヘルスチェックで外れる）
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        ReplicaDataSource dataSource = new ReplicaDataSource(primaryDataSource, replicas, replicaStickiness,
+                healthInterval, maxLag);
+        Gauge.builder("todo.datasource.replicas.healthy", dataSource, ReplicaDataSource::healthyCount)
+                .register(meterRegistry);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
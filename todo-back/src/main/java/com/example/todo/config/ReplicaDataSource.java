@@ -0,0 +1,196 @@
+package com.example.todo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 読み取り専用トランザクションの接続先。正常なレプリカをラウンドロビンで選ぶ。
+ *
+ * 次の場合はプライマリに送る: 直前に自分が書き込んだユーザーのリクエスト（ReplicaStickiness）、
+ * レプリカがリクエストの ETag の版数まで追いついていない場合、正常なレプリカがない場合、
+ * レプリカからの接続取得に失敗した場合（そのレプリカは次のヘルスチェックまで外す）。
+ *
+ * 遅延はハートビートで測る。ヘルスチェックごとにこのノードの行（replica_heartbeat）へプライマリで現在時刻を書き、
+ * レプリカに届いている値との差を遅延とする（実際の遅延以上になる）。これが maxLag を超えたレプリカは外す。
+ * 行はヘルスチェックのたびに upsert するため、Flyway がテーブルを作る前に構築されても次のチェックから測れる。
+ * 起動直後は最初のヘルスチェックに通るまでどのレプリカも使わない。
+ */
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSource.class);
+
+    // 停止したノードの行を残さないよう、ハートビートを書くときに古い行を削除する
+    private static final long STALE_HEARTBEAT_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaStickiness stickiness;
+    private final long maxLagMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaDataSource(DataSource primary, List<? extends DataSource> replicas,
+                             ReplicaStickiness stickiness, Duration healthInterval, Duration maxLag) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new Replica("replica-" + (i + 1), replicas.get(i)));
+        }
+        this.stickiness = stickiness;
+        this.maxLagMillis = maxLag.toMillis();
+        if (healthInterval.isZero()) {
+            this.healthChecker = null;
+        } else {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, healthInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (stickiness.isSticky()) {
+            return primary.getConnection();
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(1, size));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            Connection connection;
+            try {
+                connection = replica.dataSource.getConnection();
+            } catch (SQLException ex) {
+                eject(replica, ex.getMessage());
+                continue;
+            }
+            try {
+                if (stickiness.isCaughtUp(connection)) {
+                    return connection;
+                }
+            } catch (SQLException ex) {
+                eject(replica, ex.getMessage());
+            }
+            connection.close();
+        }
+        return primary.getConnection();
+    }
+
+    // 接続情報は各プールの設定を使うため、個別の資格情報での接続には対応しない
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("ReplicaDataSource uses the credentials of its pools");
+    }
+
+    // プライマリにハートビートを書いてから、外したレプリカも含めて全件を確認し、状態を更新する
+    public void checkHealth() {
+        long now = System.currentTimeMillis();
+        writeHeartbeat(now);
+        for (Replica replica : replicas) {
+            String problem = probe(replica, now);
+            if (problem != null) {
+                eject(replica, problem);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                logger.info("Replica {} is healthy", replica.name);
+            }
+        }
+    }
+
+    public int healthyCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    private void writeHeartbeat(long now) {
+        try (Connection connection = primary.getConnection()) {
+            try (PreparedStatement delete = connection.prepareStatement(
+                    "DELETE FROM replica_heartbeat WHERE beat_millis < ?")) {
+                delete.setLong(1, now - STALE_HEARTBEAT_MILLIS);
+                delete.executeUpdate();
+            }
+            try (PreparedStatement upsert = connection.prepareStatement(
+                    "INSERT INTO replica_heartbeat (node_id, beat_millis) VALUES (?, ?)"
+                            + " ON DUPLICATE KEY UPDATE beat_millis = ?")) {
+                upsert.setString(1, nodeId);
+                upsert.setLong(2, now);
+                upsert.setLong(3, now);
+                upsert.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            logger.warn("Failed to write replica heartbeat: {}", ex.getMessage());
+        }
+    }
+
+    private String probe(Replica replica, long now) {
+        try (Connection connection = replica.dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT beat_millis FROM replica_heartbeat WHERE node_id = ?")) {
+            statement.setString(1, nodeId);
+            try (ResultSet rs = statement.executeQuery()) {
+                // 行が届いていない場合は最初のハートビート以降まったく追いついていない
+                if (!rs.next()) {
+                    return "heartbeat has not been replicated";
+                }
+                long lag = now - rs.getLong(1);
+                return lag > maxLagMillis ? "lag " + lag + " ms exceeds " + maxLagMillis + " ms" : null;
+            }
+        } catch (SQLException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Ejecting replica {}: {}", replica.name, reason);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    logger.warn("Failed to close replica pool {}", replica.name, ex);
+                }
+            }
+        }
+    }
+}
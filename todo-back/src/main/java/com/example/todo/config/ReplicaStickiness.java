@@ -0,0 +1,85 @@
+package com.example.todo.config;
+
+import com.example.todo.event.ChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * 自分の書き込みを読めることの保証（read-your-writes）。
+ * ユーザーの変更がコミットされてから window の間、そのユーザーのリクエストの読み込みをプライマリに送る。
+ * window はレプリカの遅延の上限（ReplicaDataSource の max-lag とヘルスチェック間隔の和）より長くする。
+ *
+ * また、条件付き GET で返す ETag の版数（DataVersions.etag が設定する）に追いついていないレプリカは使わない。
+ * 新しい ETag で古い内容を返すと、クライアントは次の変更まで 304 で古い内容を使い続けるため。
+ */
+public class ReplicaStickiness {
+
+    private record RequiredVersion(Long userId, long version) { }
+
+    private static final ThreadLocal<Long> CURRENT_USER = new ThreadLocal<>();
+    private static final ThreadLocal<RequiredVersion> REQUIRED_VERSION = new ThreadLocal<>();
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReplicaStickiness(Duration window, long maximumSize) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    // リクエストの処理中のユーザー（ReplicaStickinessFilter が設定する）
+    public void bind(Long userId) {
+        CURRENT_USER.set(userId);
+    }
+
+    public void clear() {
+        CURRENT_USER.remove();
+        REQUIRED_VERSION.remove();
+    }
+
+    // このリクエストの読み込みは、ユーザーの版数が version 以上のスナップショットから行う
+    public void requireVersion(Long userId, long version) {
+        REQUIRED_VERSION.set(new RequiredVersion(userId, version));
+    }
+
+    // レプリカの接続が必要な版数まで追いついているか。トランザクション開始前に確認するため、
+    // その後のスナップショットはこの時点以降のものになる
+    public boolean isCaughtUp(Connection connection) throws SQLException {
+        RequiredVersion required = REQUIRED_VERSION.get();
+        if (required == null || required.version() == 0) {
+            return true;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT version FROM user_data_versions WHERE user_id = ?")) {
+            statement.setLong(1, required.userId());
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getLong(1) >= required.version();
+            }
+        }
+    }
+
+    public void markWrite(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    public boolean isSticky() {
+        Long userId = CURRENT_USER.get();
+        return userId != null && recentWriters.getIfPresent(userId) != null;
+    }
+
+    // コミット後に記録する（トランザクション外で発行された場合は即時）
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        markWrite(event.getUserId());
+    }
+}
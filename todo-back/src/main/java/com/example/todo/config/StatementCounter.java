@@ -0,0 +1,44 @@
+package com.example.todo.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Hibernate が発行する SQL 文をリクエスト単位で数える（N+1 検出用）。
+ * カウントは StatementCountFilter が開始・終了する。リクエスト外（スケジューラなど）では数えない。
+ * JdbcTemplate から直接発行する文は対象外。
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    // 設定で別の StatementInspector が指定されている場合（テストでの SQL 記録など）はそちらを優先する
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.putIfAbsent("hibernate.session_factory.statement_inspector", this);
+    }
+
+    public void start() {
+        COUNT.set(new int[1]);
+    }
+
+    // 計測を終了して件数を返す
+    public int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
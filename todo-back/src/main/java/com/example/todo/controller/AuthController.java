@@ -8,6 +8,8 @@ import com.example.todo.util.JwtUtil;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = "http://localhost:3000")
@@ -22,15 +24,18 @@ public class AuthController {
     }
 
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@RequestBody AuthRequest request) {
-        User user = userService.register(request.getUsername(), request.getPassword());
-        String token = jwtUtil.generateToken(user.getUsername(), user.getId());
-        return ResponseEntity.ok(new AuthResponse(user.getId(), user.getUsername(), token));
+    public CompletableFuture<ResponseEntity<AuthResponse>> register(@RequestBody AuthRequest request) {
+        return userService.register(request.getUsername(), request.getPassword())
+                .thenApply(this::toResponse);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
-        User user = userService.login(request.getUsername(), request.getPassword());
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody AuthRequest request) {
+        return userService.login(request.getUsername(), request.getPassword())
+                .thenApply(this::toResponse);
+    }
+
+    private ResponseEntity<AuthResponse> toResponse(User user) {
         String token = jwtUtil.generateToken(user.getUsername(), user.getId());
         return ResponseEntity.ok(new AuthResponse(user.getId(), user.getUsername(), token));
     }
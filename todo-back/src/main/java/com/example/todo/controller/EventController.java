@@ -0,0 +1,24 @@
+package com.example.todo.controller;
+
+import com.example.todo.event.ChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "http://localhost:3000")
+public class EventController {
+
+    private final ChangeFeed changeFeed;
+
+    public EventController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    // ユーザーの Todo・フォルダの変更を SSE で購読する（event: todo / folder, data: {"action", "ids"}）
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam Long userId) {
+        return changeFeed.subscribe(userId);
+    }
+}
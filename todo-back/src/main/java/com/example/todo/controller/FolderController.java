@@ -1,12 +1,17 @@
 // com/example/todo/controller/FolderController.java
 package com.example.todo.controller;
 
+import com.example.todo.cache.DataVersions;
+import com.example.todo.dto.FolderDeletionStatus;
 import com.example.todo.entity.Folder;
 import com.example.todo.service.FolderService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/folders")
@@ -14,14 +19,19 @@ import java.util.List;
 public class FolderController {
 
     private final FolderService folderService;
+    private final DataVersions dataVersions;
 
-    public FolderController(FolderService folderService) {
+    public FolderController(FolderService folderService, DataVersions dataVersions) {
         this.folderService = folderService;
+        this.dataVersions = dataVersions;
     }
 
     @GetMapping
-    public List<Folder> getFolders(@RequestParam(required = false) Long userId) {
+    public List<Folder> getFolders(@RequestParam(required = false) Long userId, WebRequest request) {
         if (userId != null) {
+            if (request.checkNotModified(dataVersions.etag(userId))) {
+                return null;
+            }
             return folderService.getFoldersByUserId(userId);
         }
         return folderService.getFoldersByUserId(null);
@@ -33,16 +43,31 @@ public class FolderController {
     }
 
     @PutMapping("/{id}")
-    public Folder updateFolder(@PathVariable Long id, @RequestBody FolderRequest request) {
-        return folderService.updateFolder(id, request.getName());
+    public Map<String, Object> updateFolder(@PathVariable Long id, @RequestBody FolderRequest request) {
+        folderService.updateFolder(id, request.getName());
+        return Map.of("id", id, "name", request.getName());
     }
 
+    // moveTodos=true の場合は配下のタスクを未分類に移動する。async=true の場合は 202 とジョブの進捗を返す
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteFolder(@PathVariable Long id) {
-        folderService.deleteFolder(id);
+    public ResponseEntity<FolderDeletionStatus> deleteFolder(@PathVariable Long id,
+                                                             @RequestParam(defaultValue = "false") boolean moveTodos,
+                                                             @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            FolderDeletionStatus status = folderService.deleteFolderAsync(id, moveTodos);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/folders/deletions/" + status.getJobId()))
+                    .body(status);
+        }
+        folderService.deleteFolder(id, moveTodos);
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/deletions/{jobId}")
+    public FolderDeletionStatus getDeletionStatus(@PathVariable String jobId) {
+        return folderService.getDeletionStatus(jobId);
+    }
+
     public static class FolderRequest {
         private String name;
         private Long userId;
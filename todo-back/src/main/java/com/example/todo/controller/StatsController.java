@@ -0,0 +1,30 @@
+package com.example.todo.controller;
+
+import com.example.todo.cache.DataVersions;
+import com.example.todo.dto.TodoStats;
+import com.example.todo.service.TodoService;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:3000")
+public class StatsController {
+
+    private final TodoService todoService;
+    private final DataVersions dataVersions;
+
+    public StatsController(TodoService todoService, DataVersions dataVersions) {
+        this.todoService = todoService;
+        this.dataVersions = dataVersions;
+    }
+
+    // 一覧と同じくデータ版数を ETag にする
+    @GetMapping
+    public TodoStats getStats(@RequestParam Long userId, WebRequest request) {
+        if (request.checkNotModified(dataVersions.etag(userId))) {
+            return null;
+        }
+        return todoService.getStats(userId);
+    }
+}
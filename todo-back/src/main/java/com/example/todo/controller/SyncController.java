@@ -0,0 +1,34 @@
+package com.example.todo.controller;
+
+import com.example.todo.dto.SyncResponse;
+import com.example.todo.service.SyncService;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@CrossOrigin(origins = "http://localhost:3000")
+public class SyncController {
+
+    private final SyncService syncService;
+
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    // since には前回のレスポンスの token を指定する（省略時は全件）
+    @GetMapping
+    public SyncResponse sync(@RequestParam Long userId, @RequestParam(required = false) String since) {
+        return syncService.getChanges(userId, parseToken(since));
+    }
+
+    private static Long parseToken(String since) {
+        if (since == null || since.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(since);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid sync token: " + since);
+        }
+    }
+}
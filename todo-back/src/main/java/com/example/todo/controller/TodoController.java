@@ -1,18 +1,32 @@
 package com.example.todo.controller;
 
-import com.example.todo.entity.Folder;
+import com.example.todo.cache.DataVersions;
 import com.example.todo.entity.Todo;
+import com.example.todo.service.CompletionWriteBehind;
+import com.example.todo.service.RecurrenceService;
 import com.example.todo.service.TodoService;
-import com.example.todo.service.FolderService;
-import com.example.todo.repository.TodoRepository;
+import com.example.todo.dto.CalendarEntry;
+import com.example.todo.dto.Occurrence;
+import com.example.todo.dto.TodoBatchCreateRequest;
+import com.example.todo.dto.TodoBatchRequest;
+import com.example.todo.dto.TodoCalendar;
+import com.example.todo.dto.TodoPage;
 import com.example.todo.dto.TodoRequest;
+import com.example.todo.dto.TodoView;
+import com.example.todo.util.DateTimeUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/todos")
@@ -20,64 +34,130 @@ import java.util.List;
 public class TodoController {
 
     private final TodoService todoService;
-    private final FolderService folderService;
-    private final TodoRepository todoRepository;
+    private final ObjectMapper objectMapper;
+    private final DataVersions dataVersions;
+    private final RecurrenceService recurrenceService;
+    private final CompletionWriteBehind writeBehind;
     
-    public TodoController(TodoService todoService, FolderService folderService, TodoRepository todoRepository) {
+    public TodoController(TodoService todoService, ObjectMapper objectMapper, DataVersions dataVersions,
+                          RecurrenceService recurrenceService, CompletionWriteBehind writeBehind) {
         this.todoService = todoService;
-        this.folderService = folderService;
-        this.todoRepository = todoRepository;
+        this.objectMapper = objectMapper;
+        this.dataVersions = dataVersions;
+        this.recurrenceService = recurrenceService;
+        this.writeBehind = writeBehind;
     }
 
+    // ETag はユーザーのデータ版数。If-None-Match が一致すれば DB に触れずに 304 を返す
+    // （未反映の完了切り替えがある間は版数と内容が一致しないため、304 を返さない）
     @GetMapping
-    public List<Todo> getTodos(@RequestParam Long userId, @RequestParam(required = false) Long folderId, @RequestParam(required = false) Boolean all) {
+    public List<TodoView> getTodos(@RequestParam Long userId, @RequestParam(required = false) Long folderId, @RequestParam(required = false) Boolean all,
+                               WebRequest request) {
+    if (notModified(userId, request)) {
+        return null;
+    }
+    List<TodoView> todos;
     if (Boolean.TRUE.equals(all)) {
-        return todoService.getTodosByUserId(userId);  // ユーザーの全タスクを返す
+        todos = todoService.getTodosByUserId(userId);  // ユーザーの全タスクを返す
     } else if (folderId != null) {
-        return todoService.getTodosByUserIdAndFolderId(userId, folderId);
+        todos = todoService.getTodosByUserIdAndFolderId(userId, folderId);
+    } else {
+        todos = todoService.getUnassignedTodosByUserId(userId);
     }
-    return todoService.getUnassignedTodosByUserId(userId);
+    return overlay(userId, todos);
 }
 
-    @PostMapping
-public Todo addTodo(@RequestBody @Valid TodoRequest request) {
-    // "yyyy-MM-dd'T'HH:mm" 形式でパースするフォーマッターを定義
-    DateTimeFormatter formatter = new DateTimeFormatterBuilder()
-            .appendPattern("yyyy-MM-dd'T'HH:mm")  // 分までは必須
-            .optionalStart()
-            .appendPattern(":ss")                 // 秒はオプション
-            .optionalEnd()
-            .toFormatter();
-
-    LocalDateTime startTime;
-    try {
-        startTime = LocalDateTime.parse(request.getStartTime(), formatter);
-    } catch (Exception ex) {
-        throw new RuntimeException("Invalid startTime format: " + request.getStartTime(), ex);
+    // limit が指定された場合はカーソルベースのページングで返す
+    @GetMapping(params = "limit")
+    public TodoPage getTodoPage(@RequestParam Long userId,
+                                @RequestParam(required = false) Long folderId,
+                                @RequestParam(required = false) Boolean all,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam int limit) {
+        return overlay(userId, todoService.getTodoPage(userId, folderId, Boolean.TRUE.equals(all), cursor, limit));
     }
-    
-    Todo todo = todoService.createTodo(
-        request.getTitle(),
-        request.getUserId(),
-        request.getTaskType(),
-        request.getPriority(),
-        startTime,
-        request.getFrequency(),
-        request.getContext()
-    );
-    
-    if (request.getFolderId() != null) {
-        Folder folder = folderService.getFolderById(request.getFolderId());
-        todo.setFolder(folder);
-        todo = todoRepository.save(todo);
+
+    // 全文検索（folderId・completed で絞り込み、cursor でページング）
+    @GetMapping("/search")
+    public TodoPage searchTodos(@RequestParam Long userId,
+                                @RequestParam String q,
+                                @RequestParam(required = false) Long folderId,
+                                @RequestParam(required = false) Boolean completed,
+                                @RequestParam(required = false) String cursor,
+                                @RequestParam(defaultValue = "50") int limit) {
+        if (completed != null && writeBehind.hasPending(userId)) {
+            // DB の完了状態で絞り込むと未反映の切り替えが漏れるため、重ねてから絞り込む
+            return todoService.searchTodos(userId, q, folderId, completed, cursor, limit, rows -> overlay(userId, rows));
+        }
+        return overlay(userId, todoService.searchTodos(userId, q, folderId, completed, cursor, limit));
+    }
+
+    // カレンダー表示用。[from, to) と重なるタスクを日ごとにまとめて返す
+    @GetMapping("/range")
+    public TodoCalendar getTodosInRange(@RequestParam Long userId, @RequestParam String from, @RequestParam String to,
+                                        WebRequest request) {
+        if (notModified(userId, request)) {
+            return null;
+        }
+        TodoCalendar calendar = todoService.getTodosInRange(userId, parseDateTime(from), parseDateTime(to));
+        if (!writeBehind.hasPending(userId)) {
+            return calendar;
+        }
+        return TodoCalendar.of(calendar.getFrom(), calendar.getTo(), writeBehind.overlay(userId, calendar.getTodos(),
+                CalendarEntry::getId, CalendarEntry::withCompleted));
+    }
+
+    // 繰り返しタスクの [from, to) の回を展開して返す（ETag は一覧と共通のデータ版数）
+    @GetMapping("/occurrences")
+    public List<Occurrence> getOccurrences(@RequestParam Long userId, @RequestParam String from, @RequestParam String to,
+                                           WebRequest request) {
+        if (request.checkNotModified(dataVersions.etag(userId))) {
+            return null;
+        }
+        return recurrenceService.getOccurrences(userId, parseDateTime(from), parseDateTime(to));
     }
-    return todo;
-}
 
+    // NDJSON 形式で1行ずつ書き出す（件数に関わらずヒープ使用量は一定）
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public void streamTodos(@RequestParam Long userId,
+                            @RequestParam(required = false) Long folderId,
+                            @RequestParam(required = false) Boolean all,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            todoService.streamTodos(userId, folderId, Boolean.TRUE.equals(all), todo -> {
+                try {
+                    objectMapper.writeValue(generator, writeBehind.overlay(todo, TodoView::getId, TodoView::withCompleted));
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
 
+    @PostMapping
+    public Todo addTodo(@RequestBody @Valid TodoRequest request) {
+        LocalDateTime startTime = DateTimeUtil.parseStartTime(request.getStartTime());
+        return todoService.createTodo(
+            request.getTitle(),
+            request.getUserId(),
+            request.getTaskType(),
+            request.getPriority(),
+            startTime,
+            request.getFrequency(),
+            request.getContext(),
+            request.getFolderId()
+        );
+    }
+
+    // 更新系の応答は変更した項目だけ（エンティティを読み直さない）。他の項目が必要なクライアントは一覧を再取得する
     @PutMapping("/{id}")
-    public Todo updateTodo(@PathVariable Long id, @RequestBody @Valid TodoRequest request) {
-        return todoService.updateTodo(id, request.getTitle());
+    public Map<String, Object> updateTodo(@PathVariable Long id, @RequestBody @Valid TodoRequest request) {
+        todoService.updateTodo(id, request.getTitle());
+        return Map.of("id", id, "title", request.getTitle());
     }
 
     @DeleteMapping("/{id}")
@@ -86,13 +166,93 @@ public Todo addTodo(@RequestBody @Valid TodoRequest request) {
         return ResponseEntity.noContent().build();
     }
 
+    // 書き込み遅延が有効な場合はジャーナルに記録した時点で応答し、DB へはまとめて反映する
     @PutMapping("/{id}/complete")
-    public Todo completeTodo(@PathVariable Long id) {
-        return todoService.updateCompletion(id, true);
+    public Map<String, Object> completeTodo(@PathVariable Long id) {
+        updateCompletion(id, true);
+        return Map.of("id", id, "completed", true);
     }
 
     @PutMapping("/{id}/incomplete")
-    public Todo incompleteTodo(@PathVariable Long id) {
-        return todoService.updateCompletion(id, false);
+    public Map<String, Object> incompleteTodo(@PathVariable Long id) {
+        updateCompletion(id, false);
+        return Map.of("id", id, "completed", false);
+    }
+
+    // 繰り返しタスクの1回分の完了・取り消し（start は回の開始時刻）
+    @PutMapping("/{id}/occurrences/complete")
+    public Map<String, Object> completeOccurrence(@PathVariable Long id, @RequestParam String start) {
+        LocalDateTime occurrenceStart = parseDateTime(start);
+        recurrenceService.updateOccurrence(id, occurrenceStart, true);
+        return Map.of("id", id, "occurrenceStart", occurrenceStart, "completed", true);
+    }
+
+    @PutMapping("/{id}/occurrences/incomplete")
+    public Map<String, Object> incompleteOccurrence(@PathVariable Long id, @RequestParam String start) {
+        LocalDateTime occurrenceStart = parseDateTime(start);
+        recurrenceService.updateOccurrence(id, occurrenceStart, false);
+        return Map.of("id", id, "occurrenceStart", occurrenceStart, "completed", false);
+    }
+
+    // 一括操作（1リクエスト・1トランザクション）
+    @PostMapping("/batch")
+    public List<Todo> addTodos(@RequestBody @Valid TodoBatchCreateRequest request) {
+        return todoService.createTodos(request.getTodos());
+    }
+
+    @PutMapping("/batch/complete")
+    public Map<String, Integer> completeTodos(@RequestBody @Valid TodoBatchRequest request) {
+        return Map.of("updated", updateCompletion(request.getIds(), true));
+    }
+
+    @PutMapping("/batch/incomplete")
+    public Map<String, Integer> incompleteTodos(@RequestBody @Valid TodoBatchRequest request) {
+        return Map.of("updated", updateCompletion(request.getIds(), false));
+    }
+
+    @PutMapping("/batch/move")
+    public Map<String, Integer> moveTodos(@RequestBody @Valid TodoBatchRequest request) {
+        return Map.of("updated", todoService.moveTodos(request.getIds(), request.getFolderId()));
+    }
+
+    @DeleteMapping("/batch")
+    public Map<String, Integer> deleteTodos(@RequestBody @Valid TodoBatchRequest request) {
+        return Map.of("deleted", todoService.deleteTodos(request.getIds()));
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid date-time: " + value, ex);
+        }
+    }
+
+    private void updateCompletion(Long id, boolean completed) {
+        if (writeBehind.isEnabled()) {
+            writeBehind.toggle(id, completed);
+        } else {
+            todoService.updateCompletion(id, completed);
+        }
+    }
+
+    // 書き込み遅延が有効な場合は、存在する Todo の件数を返す（状態が変わらないものも含む）
+    private int updateCompletion(List<Long> ids, boolean completed) {
+        if (writeBehind.isEnabled()) {
+            return writeBehind.toggleAll(ids, completed);
+        }
+        return todoService.updateCompletion(ids, completed);
+    }
+
+    private boolean notModified(Long userId, WebRequest request) {
+        return !writeBehind.hasPending(userId) && request.checkNotModified(dataVersions.etag(userId));
+    }
+
+    private List<TodoView> overlay(Long userId, List<TodoView> todos) {
+        return writeBehind.overlay(userId, todos, TodoView::getId, TodoView::withCompleted);
+    }
+
+    private TodoPage overlay(Long userId, TodoPage page) {
+        return new TodoPage(overlay(userId, page.getItems()), page.getNextCursor());
     }
 }
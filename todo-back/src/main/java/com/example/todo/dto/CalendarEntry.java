@@ -0,0 +1,41 @@
+package com.example.todo.dto;
+
+import com.example.todo.entity.Priority;
+import java.time.LocalDateTime;
+
+/**
+ * カレンダー表示用の最小限の列。JPQL のコンストラクタ式で取得する。
+ * endTime が null のタスクは startTime の時点だけを占める。
+ */
+public final class CalendarEntry {
+    private final Long id;
+    private final String title;
+    private final boolean completed;
+    private final Priority priority;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+    private final Long folderId;
+
+    public CalendarEntry(Long id, String title, boolean completed, Priority priority,
+                         LocalDateTime startTime, LocalDateTime endTime, Long folderId) {
+        this.id = id;
+        this.title = title;
+        this.completed = completed;
+        this.priority = priority;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.folderId = folderId;
+    }
+
+    public CalendarEntry withCompleted(boolean completed) {
+        return new CalendarEntry(id, title, completed, priority, startTime, endTime, folderId);
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public boolean isCompleted() { return completed; }
+    public Priority getPriority() { return priority; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public LocalDateTime getEndTime() { return endTime; }
+    public Long getFolderId() { return folderId; }
+}
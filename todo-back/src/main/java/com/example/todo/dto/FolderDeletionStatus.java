@@ -0,0 +1,38 @@
+package com.example.todo.dto;
+
+public class FolderDeletionStatus {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private String jobId;
+    private Long folderId;
+    private State state;
+    // 処理済みのタスク件数（削除または未分類への移動）と開始時点の総件数
+    private long processed;
+    private long total;
+
+    public FolderDeletionStatus() { }
+
+    public FolderDeletionStatus(String jobId, Long folderId, State state, long processed, long total) {
+        this.jobId = jobId;
+        this.folderId = folderId;
+        this.state = state;
+        this.processed = processed;
+        this.total = total;
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public Long getFolderId() { return folderId; }
+    public void setFolderId(Long folderId) { this.folderId = folderId; }
+
+    public State getState() { return state; }
+    public void setState(State state) { this.state = state; }
+
+    public long getProcessed() { return processed; }
+    public void setProcessed(long processed) { this.processed = processed; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+}
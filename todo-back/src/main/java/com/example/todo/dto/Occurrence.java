@@ -0,0 +1,23 @@
+package com.example.todo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 繰り返しタスクの1回分。期間指定の読み込み時に規則から展開する（完了済みの回だけが DB の行を持つ）。
+ */
+public final class Occurrence {
+    private final TodoView todo;
+    private final LocalDateTime occurrenceStart;
+    private final LocalDateTime completedAt;
+
+    public Occurrence(TodoView todo, LocalDateTime occurrenceStart, LocalDateTime completedAt) {
+        this.todo = todo;
+        this.occurrenceStart = occurrenceStart;
+        this.completedAt = completedAt;
+    }
+
+    public TodoView getTodo() { return todo; }
+    public LocalDateTime getOccurrenceStart() { return occurrenceStart; }
+    public boolean isCompleted() { return completedAt != null; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+}
@@ -0,0 +1,48 @@
+package com.example.todo.dto;
+
+import com.example.todo.entity.Folder;
+import com.example.todo.entity.Todo;
+import java.util.List;
+
+/**
+ * 差分同期の結果。full が true の場合は todos / folders がユーザーの全件で、クライアントは手元のデータを置き換える。
+ * 次回は token を since に指定する。
+ */
+public class SyncResponse {
+    private String token;
+    private boolean full;
+    private List<Todo> todos;
+    private List<Folder> folders;
+    private List<Long> deletedTodoIds;
+    private List<Long> deletedFolderIds;
+
+    public SyncResponse() { }
+
+    public SyncResponse(String token, boolean full, List<Todo> todos, List<Folder> folders,
+                        List<Long> deletedTodoIds, List<Long> deletedFolderIds) {
+        this.token = token;
+        this.full = full;
+        this.todos = todos;
+        this.folders = folders;
+        this.deletedTodoIds = deletedTodoIds;
+        this.deletedFolderIds = deletedFolderIds;
+    }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public boolean isFull() { return full; }
+    public void setFull(boolean full) { this.full = full; }
+
+    public List<Todo> getTodos() { return todos; }
+    public void setTodos(List<Todo> todos) { this.todos = todos; }
+
+    public List<Folder> getFolders() { return folders; }
+    public void setFolders(List<Folder> folders) { this.folders = folders; }
+
+    public List<Long> getDeletedTodoIds() { return deletedTodoIds; }
+    public void setDeletedTodoIds(List<Long> deletedTodoIds) { this.deletedTodoIds = deletedTodoIds; }
+
+    public List<Long> getDeletedFolderIds() { return deletedFolderIds; }
+    public void setDeletedFolderIds(List<Long> deletedFolderIds) { this.deletedFolderIds = deletedFolderIds; }
+}
@@ -0,0 +1,17 @@
+package com.example.todo.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class TodoBatchCreateRequest {
+    @NotEmpty(message = "Todos must not be empty")
+    @Size(max = 500, message = "Batch must not exceed 500 todos")
+    private List<@Valid TodoRequest> todos;
+
+    public TodoBatchCreateRequest() { }
+
+    public List<TodoRequest> getTodos() { return todos; }
+    public void setTodos(List<TodoRequest> todos) { this.todos = todos; }
+}
@@ -0,0 +1,22 @@
+package com.example.todo.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class TodoBatchRequest {
+    @NotEmpty(message = "IDs must not be empty")
+    @Size(max = 500, message = "Batch must not exceed 500 IDs")
+    private List<Long> ids;
+
+    // move の場合の移動先フォルダ（null の場合はフォルダなし）
+    private Long folderId;
+
+    public TodoBatchRequest() { }
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+
+    public Long getFolderId() { return folderId; }
+    public void setFolderId(Long folderId) { this.folderId = folderId; }
+}
@@ -0,0 +1,64 @@
+package com.example.todo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 期間 [from, to) と重なるタスクを日ごとにまとめた結果。
+ * 複数日にまたがるタスクも todos には1度だけ含め、各日には ID だけを並べる。
+ */
+public class TodoCalendar {
+
+    public static class Day {
+        private final LocalDate date;
+        private final List<Long> ids = new ArrayList<>();
+
+        Day(LocalDate date) {
+            this.date = date;
+        }
+
+        public LocalDate getDate() { return date; }
+        public List<Long> getIds() { return ids; }
+    }
+
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final List<CalendarEntry> todos;
+    private final List<Day> days;
+
+    private TodoCalendar(LocalDateTime from, LocalDateTime to, List<CalendarEntry> todos, List<Day> days) {
+        this.from = from;
+        this.to = to;
+        this.todos = todos;
+        this.days = days;
+    }
+
+    // タスクが占める日（期間内に限る）それぞれに ID を振り分ける。タスクのない日は含めない
+    public static TodoCalendar of(LocalDateTime from, LocalDateTime to, List<CalendarEntry> entries) {
+        Map<LocalDate, Day> days = new TreeMap<>();
+        LocalDate lastDay = to.minusNanos(1).toLocalDate();
+        for (CalendarEntry entry : entries) {
+            LocalDateTime start = entry.getStartTime().isBefore(from) ? from : entry.getStartTime();
+            // 終了時刻ちょうどの日には含めない（[start, end) として扱う）
+            LocalDate end = entry.getEndTime() != null && entry.getEndTime().isAfter(entry.getStartTime())
+                    ? entry.getEndTime().minusNanos(1).toLocalDate()
+                    : entry.getStartTime().toLocalDate();
+            if (end.isAfter(lastDay)) {
+                end = lastDay;
+            }
+            for (LocalDate date = start.toLocalDate(); !date.isAfter(end); date = date.plusDays(1)) {
+                days.computeIfAbsent(date, Day::new).ids.add(entry.getId());
+            }
+        }
+        return new TodoCalendar(from, to, entries, new ArrayList<>(days.values()));
+    }
+
+    public LocalDateTime getFrom() { return from; }
+    public LocalDateTime getTo() { return to; }
+    public List<CalendarEntry> getTodos() { return todos; }
+    public List<Day> getDays() { return days; }
+}
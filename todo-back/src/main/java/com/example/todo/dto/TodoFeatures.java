@@ -0,0 +1,21 @@
+package com.example.todo.dto;
+
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import java.time.LocalDateTime;
+
+/**
+ * 完了時間予測の学習に使う Todo の列だけを取得するプロジェクション。
+ */
+public interface TodoFeatures {
+    Long getId();
+    Long getUserId();
+    TaskType getTaskType();
+    Priority getPriority();
+    Frequency getFrequency();
+    String getContext();
+    LocalDateTime getStartTime();
+    boolean isCompleted();
+    Integer getActualCompletionTime();
+}
@@ -0,0 +1,9 @@
+package com.example.todo.dto;
+
+/**
+ * Todo の ID と所有ユーザーだけを取得するプロジェクション。
+ */
+public interface TodoOwner {
+    Long getId();
+    Long getUserId();
+}
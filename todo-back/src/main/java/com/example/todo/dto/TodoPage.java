@@ -0,0 +1,22 @@
+package com.example.todo.dto;
+
+import java.util.List;
+
+public class TodoPage {
+    private List<TodoView> items;
+    // 次ページ取得用のカーソル（最終ページの場合は null）
+    private String nextCursor;
+
+    public TodoPage() { }
+
+    public TodoPage(List<TodoView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TodoView> getItems() { return items; }
+    public void setItems(List<TodoView> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -1,5 +1,8 @@
 package com.example.todo.dto;
 
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -12,16 +15,17 @@ public class TodoRequest {
     @NotNull(message = "User ID is required")
     private Long userId;
 
-    @NotBlank(message = "Task type is required")
-    private String taskType;
+    // 既知の値以外は JSON の読み込み時に 400 になる
+    @NotNull(message = "Task type is required")
+    private TaskType taskType;
 
-    @NotBlank(message = "Priority is required")
-    private String priority;
+    @NotNull(message = "Priority is required")
+    private Priority priority;
 
     @NotBlank(message = "Start time is required")
     private String startTime;
 
-    private String frequency;
+    private Frequency frequency;
     private String context;
     
     private Long folderId;
@@ -39,16 +43,16 @@ public class TodoRequest {
     public void setUserId(Long userId) {
         this.userId = userId;
     }
-    public String getTaskType() {
+    public TaskType getTaskType() {
         return taskType;
     }
-    public void setTaskType(String taskType) {
+    public void setTaskType(TaskType taskType) {
         this.taskType = taskType;
     }
-    public String getPriority() {
+    public Priority getPriority() {
         return priority;
     }
-    public void setPriority(String priority) {
+    public void setPriority(Priority priority) {
         this.priority = priority;
     }
     public String getStartTime() {
@@ -57,10 +61,10 @@ public class TodoRequest {
     public void setStartTime(String startTime) {
         this.startTime = startTime;
     }
-    public String getFrequency() {
+    public Frequency getFrequency() {
         return frequency;
     }
-    public void setFrequency(String frequency) {
+    public void setFrequency(Frequency frequency) {
         this.frequency = frequency;
     }
     public String getContext() {
@@ -0,0 +1,63 @@
+package com.example.todo.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ダッシュボード用の統計。全体とフォルダ・種別・優先度ごとの内訳を持つ。
+ */
+public class TodoStats {
+
+    public static class Bucket {
+        // フォルダ別では folderId（未分類は null）、種別・優先度別ではその値
+        private final Object key;
+        private long total;
+        private long completed;
+        private long predictedMinutes;
+        private long actualMinutes;
+
+        public Bucket(Object key) {
+            this.key = key;
+        }
+
+        void add(TodoStatsRow row) {
+            total += row.getCount();
+            if (row.isCompleted()) {
+                completed += row.getCount();
+            }
+            predictedMinutes += row.getPredictedMinutes() != null ? row.getPredictedMinutes() : 0;
+            actualMinutes += row.getActualMinutes() != null ? row.getActualMinutes() : 0;
+        }
+
+        public Object getKey() { return key; }
+        public long getTotal() { return total; }
+        public long getCompleted() { return completed; }
+        public double getCompletionRatio() { return total == 0 ? 0 : (double) completed / total; }
+        public long getPredictedMinutes() { return predictedMinutes; }
+        public long getActualMinutes() { return actualMinutes; }
+    }
+
+    private final Bucket overall = new Bucket(null);
+    private final Map<Object, Bucket> byFolder = new LinkedHashMap<>();
+    private final Map<Object, Bucket> byTaskType = new LinkedHashMap<>();
+    private final Map<Object, Bucket> byPriority = new LinkedHashMap<>();
+
+    // GROUP BY の結果（組み合わせごとの1行）を各内訳に振り分ける
+    public static TodoStats of(List<TodoStatsRow> rows) {
+        TodoStats stats = new TodoStats();
+        for (TodoStatsRow row : rows) {
+            stats.overall.add(row);
+            stats.byFolder.computeIfAbsent(row.getFolderId(), Bucket::new).add(row);
+            stats.byTaskType.computeIfAbsent(row.getTaskType(), Bucket::new).add(row);
+            stats.byPriority.computeIfAbsent(row.getPriority(), Bucket::new).add(row);
+        }
+        return stats;
+    }
+
+    public Bucket getOverall() { return overall; }
+    public List<Bucket> getByFolder() { return new ArrayList<>(byFolder.values()); }
+    public List<Bucket> getByTaskType() { return new ArrayList<>(byTaskType.values()); }
+    public List<Bucket> getByPriority() { return new ArrayList<>(byPriority.values()); }
+}
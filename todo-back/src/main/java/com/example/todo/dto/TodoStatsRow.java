@@ -0,0 +1,17 @@
+package com.example.todo.dto;
+
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+
+/**
+ * ダッシュボード統計の集計行（フォルダ・種別・優先度・完了状態ごとの件数と時間の合計）。
+ */
+public interface TodoStatsRow {
+    Long getFolderId();
+    TaskType getTaskType();
+    Priority getPriority();
+    boolean isCompleted();
+    long getCount();
+    Long getPredictedMinutes();
+    Long getActualMinutes();
+}
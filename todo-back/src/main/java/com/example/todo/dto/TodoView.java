@@ -0,0 +1,69 @@
+package com.example.todo.dto;
+
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import com.example.todo.entity.Todo;
+import java.time.LocalDateTime;
+
+/**
+ * 一覧表示用の読み取り専用ビュー。JPQL のコンストラクタ式で必要な列だけを取得するため、
+ * エンティティの生成・永続化コンテキストへの登録（変更検知用のスナップショット）が発生しない。
+ * endTime / actualCompletionTime は一覧では使わないため含めない。
+ */
+public final class TodoView {
+    private final Long id;
+    private final String title;
+    private final boolean completed;
+    private final LocalDateTime createdAt;
+    private final Long userId;
+    private final TaskType taskType;
+    private final Priority priority;
+    private final LocalDateTime startTime;
+    private final Frequency frequency;
+    private final String context;
+    private final Long folderId;
+    private final Integer predictedCompletionTime;
+
+    public TodoView(Long id, String title, boolean completed, LocalDateTime createdAt, Long userId,
+                    TaskType taskType, Priority priority, LocalDateTime startTime, Frequency frequency, String context,
+                    Long folderId, Integer predictedCompletionTime) {
+        this.id = id;
+        this.title = title;
+        this.completed = completed;
+        this.createdAt = createdAt;
+        this.userId = userId;
+        this.taskType = taskType;
+        this.priority = priority;
+        this.startTime = startTime;
+        this.frequency = frequency;
+        this.context = context;
+        this.folderId = folderId;
+        this.predictedCompletionTime = predictedCompletionTime;
+    }
+
+    public static TodoView from(Todo todo) {
+        return new TodoView(todo.getId(), todo.getTitle(), todo.isCompleted(), todo.getCreatedAt(), todo.getUserId(),
+                todo.getTaskType(), todo.getPriority(), todo.getStartTime(), todo.getFrequency(), todo.getContext(),
+                todo.getFolderId(), todo.getPredictedCompletionTime());
+    }
+
+    // 完了状態だけを差し替えたコピー（未反映の切り替えを重ねる場合）
+    public TodoView withCompleted(boolean completed) {
+        return new TodoView(id, title, completed, createdAt, userId, taskType, priority, startTime, frequency, context,
+                folderId, predictedCompletionTime);
+    }
+
+    public Long getId() { return id; }
+    public String getTitle() { return title; }
+    public boolean isCompleted() { return completed; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public Long getUserId() { return userId; }
+    public TaskType getTaskType() { return taskType; }
+    public Priority getPriority() { return priority; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public Frequency getFrequency() { return frequency; }
+    public String getContext() { return context; }
+    public Long getFolderId() { return folderId; }
+    public Integer getPredictedCompletionTime() { return predictedCompletionTime; }
+}
@@ -0,0 +1,38 @@
+package com.example.todo.entity;
+
+/**
+ * DB には小さな整数コードで保存し、JSON では従来どおりの小文字の文字列で表す分類値。
+ */
+public interface CodedEnum {
+    // DB に保存するコード。予測モデルの特徴量の符号にもそのまま使う（未指定は 0 と同じ扱い）
+    int getCode();
+
+    // JSON での表現
+    String getValue();
+
+    static <E extends Enum<E> & CodedEnum> E fromValue(Class<E> type, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        for (E e : type.getEnumConstants()) {
+            if (e.getValue().equalsIgnoreCase(value)) {
+                return e;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + type.getSimpleName() + ": " + value);
+    }
+
+    static <E extends Enum<E> & CodedEnum> E fromCode(Class<E> type, int code) {
+        for (E e : type.getEnumConstants()) {
+            if (e.getCode() == code) {
+                return e;
+            }
+        }
+        throw new IllegalArgumentException("Unknown " + type.getSimpleName() + " code: " + code);
+    }
+
+    // 未指定（null）は 0
+    static int codeOf(CodedEnum e) {
+        return e != null ? e.getCode() : 0;
+    }
+}
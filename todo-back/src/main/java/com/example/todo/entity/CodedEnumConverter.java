@@ -0,0 +1,25 @@
+package com.example.todo.entity;
+
+import jakarta.persistence.AttributeConverter;
+
+/**
+ * CodedEnum と TINYINT 列の変換。
+ */
+public abstract class CodedEnumConverter<E extends Enum<E> & CodedEnum> implements AttributeConverter<E, Byte> {
+
+    private final Class<E> type;
+
+    protected CodedEnumConverter(Class<E> type) {
+        this.type = type;
+    }
+
+    @Override
+    public Byte convertToDatabaseColumn(E attribute) {
+        return attribute != null ? (byte) attribute.getCode() : null;
+    }
+
+    @Override
+    public E convertToEntityAttribute(Byte dbData) {
+        return dbData != null ? CodedEnum.fromCode(type, dbData) : null;
+    }
+}
@@ -1,15 +1,19 @@
 // com/example/todo/entity/Folder.java
 package com.example.todo.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.util.List;
 
 @Entity
-@Table(name = "folders")
+@Table(name = "folders", indexes = {
+    @Index(name = "idx_folders_user", columnList = "user_id")
+})
 public class Folder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "folder_seq")
+    @SequenceGenerator(name = "folder_seq", sequenceName = "folders_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -18,7 +22,9 @@ public class Folder {
     // フォルダは特定のユーザーに紐づくと仮定（ユーザーIDを保存）
     private Long userId;
 
-    @OneToMany(mappedBy = "folder", cascade = CascadeType.ALL, orphanRemoval = true)
+    // 削除は FolderService で集合演算として行うため、カスケードは設定しない
+    @JsonIgnore
+    @OneToMany(mappedBy = "folder")
     private List<Todo> todos;
 
     public Folder() { }
@@ -0,0 +1,41 @@
+package com.example.todo.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 繰り返しの頻度。
+ */
+public enum Frequency implements CodedEnum {
+    NONE(0, "none"),
+    DAILY(1, "daily"),
+    WEEKLY(2, "weekly");
+
+    private final int code;
+    private final String value;
+
+    Frequency(int code, String value) {
+        this.code = code;
+        this.value = value;
+    }
+
+    @Override
+    public int getCode() { return code; }
+
+    @JsonValue
+    @Override
+    public String getValue() { return value; }
+
+    @JsonCreator
+    public static Frequency fromValue(String value) {
+        return CodedEnum.fromValue(Frequency.class, value);
+    }
+
+    // DB の TINYINT 列との変換
+    @jakarta.persistence.Converter
+    public static class ColumnConverter extends CodedEnumConverter<Frequency> {
+        public ColumnConverter() {
+            super(Frequency.class);
+        }
+    }
+}
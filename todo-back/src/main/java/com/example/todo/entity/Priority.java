@@ -0,0 +1,41 @@
+package com.example.todo.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * 優先度。
+ */
+public enum Priority implements CodedEnum {
+    HIGH(1, "high"),
+    MEDIUM(2, "medium"),
+    LOW(3, "low");
+
+    private final int code;
+    private final String value;
+
+    Priority(int code, String value) {
+        this.code = code;
+        this.value = value;
+    }
+
+    @Override
+    public int getCode() { return code; }
+
+    @JsonValue
+    @Override
+    public String getValue() { return value; }
+
+    @JsonCreator
+    public static Priority fromValue(String value) {
+        return CodedEnum.fromValue(Priority.class, value);
+    }
+
+    // DB の TINYINT 列との変換
+    @jakarta.persistence.Converter
+    public static class ColumnConverter extends CodedEnumConverter<Priority> {
+        public ColumnConverter() {
+            super(Priority.class);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.todo.entity;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * タスクの種別。
+ */
+public enum TaskType implements CodedEnum {
+    CODING(1, "coding"),
+    STUDY(2, "study"),
+    SHOPPING(3, "shopping"),
+    EXERCISE(4, "exercise");
+
+    private final int code;
+    private final String value;
+
+    TaskType(int code, String value) {
+        this.code = code;
+        this.value = value;
+    }
+
+    @Override
+    public int getCode() { return code; }
+
+    @JsonValue
+    @Override
+    public String getValue() { return value; }
+
+    @JsonCreator
+    public static TaskType fromValue(String value) {
+        return CodedEnum.fromValue(TaskType.class, value);
+    }
+
+    // DB の TINYINT 列との変換
+    @jakarta.persistence.Converter
+    public static class ColumnConverter extends CodedEnumConverter<TaskType> {
+        public ColumnConverter() {
+            super(TaskType.class);
+        }
+    }
+}
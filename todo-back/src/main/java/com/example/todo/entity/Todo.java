@@ -2,15 +2,26 @@
 package com.example.todo.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "todos")
+@Table(name = "todos", indexes = {
+    @Index(name = "idx_todos_user_folder_created", columnList = "user_id, folder_id, created_at, id"),
+    @Index(name = "idx_todos_user_created", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_todos_user_stats",
+           columnList = "user_id, folder_id, task_type, priority, completed, predicted_completion_time, actual_completion_time"),
+    @Index(name = "idx_todos_user_start", columnList = "user_id, start_time"),
+    @Index(name = "idx_todos_user_span", columnList = "user_id, span_minutes"),
+    @Index(name = "idx_todos_completed_at", columnList = "completed_at"),
+    @Index(name = "idx_todos_uncompleted_at", columnList = "uncompleted_at")
+})
 public class Todo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "todo_seq")
+    @SequenceGenerator(name = "todo_seq", sequenceName = "todos_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -19,14 +30,25 @@ public class Todo {
     
     private Long userId;
     
-    private String taskType;
-    private String priority;
+    // 分類値は TINYINT のコードで保存する（JSON では文字列）
+    @Convert(converter = TaskType.ColumnConverter.class)
+    private TaskType taskType;
+    @Convert(converter = Priority.ColumnConverter.class)
+    private Priority priority;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
-    private String frequency;
+    private LocalDateTime completedAt;
+    // 学習済みの完了を最後に取り消した時刻（予測モデルの復元判定にのみ使う）
+    @JsonIgnore
+    private LocalDateTime uncompletedAt;
+    @Convert(converter = Frequency.ColumnConverter.class)
+    private Frequency frequency;
     private String context;
     private Integer actualCompletionTime;
     private Integer predictedCompletionTime;
+    // DB の生成列（予定の終了時刻 end_time - start_time の分数。完了時刻は含めない）。カレンダーの検索範囲の算出にのみ使う
+    @Column(insertable = false, updatable = false)
+    private Integer spanMinutes;
 
     @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,7 +57,7 @@ public class Todo {
 
     public Todo() {}
 
-    public Todo(String title, Long userId, String taskType, String priority, LocalDateTime startTime, String frequency, String context) {
+    public Todo(String title, Long userId, TaskType taskType, Priority priority, LocalDateTime startTime, Frequency frequency, String context) {
         this.title = title;
         this.userId = userId;
         this.taskType = taskType;
@@ -59,16 +81,17 @@ public class Todo {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
-    public String getTaskType() { return taskType; }
-    public void setTaskType(String taskType) { this.taskType = taskType; }
-    public String getPriority() { return priority; }
-    public void setPriority(String priority) { this.priority = priority; }
+    public TaskType getTaskType() { return taskType; }
+    public void setTaskType(TaskType taskType) { this.taskType = taskType; }
+    public Priority getPriority() { return priority; }
+    public void setPriority(Priority priority) { this.priority = priority; }
     public LocalDateTime getStartTime() { return startTime; }
     public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
     public LocalDateTime getEndTime() { return endTime; }
     public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
-    public String getFrequency() { return frequency; }
-    public void setFrequency(String frequency) { this.frequency = frequency; }
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public Frequency getFrequency() { return frequency; }
+    public void setFrequency(Frequency frequency) { this.frequency = frequency; }
     public String getContext() { return context; }
     public void setContext(String context) { this.context = context; }
     public Integer getActualCompletionTime() { return actualCompletionTime; }
@@ -77,4 +100,8 @@ public class Todo {
     public void setPredictedCompletionTime(Integer predictedCompletionTime) { this.predictedCompletionTime = predictedCompletionTime; }
     public Folder getFolder() { return folder; }
     public void setFolder(Folder folder) { this.folder = folder; }
+
+    // フォルダ本体は読み込まずに ID だけを返す（差分同期のクライアントが所属を判定するため）
+    @JsonProperty("folderId")
+    public Long getFolderId() { return folder != null ? folder.getId() : null; }
 }
@@ -0,0 +1,57 @@
+package com.example.todo.event;
+
+import com.example.todo.entity.Frequency;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ユーザーのデータが変更されたことを表すイベント。
+ * サービス層から発行し、コミット後にリスナー（SSE 配信など）が受け取る。
+ */
+public class ChangeEvent {
+
+    public enum Entity { TODO, FOLDER }
+
+    public enum Action { CREATED, UPDATED, DELETED }
+
+    // 変更後の繰り返し設定。設定が変わりうる変更（作成）でだけ持たせ、リスナーが行を読み直さずに済むようにする
+    public record Schedule(Long todoId, Frequency frequency, LocalDateTime startTime) { }
+
+    private final Long userId;
+    private final Entity entity;
+    private final Action action;
+    private final List<Long> ids;
+    private final List<Schedule> schedules;
+
+    public ChangeEvent(Long userId, Entity entity, Action action, List<Long> ids) {
+        this(userId, entity, action, ids, List.of());
+    }
+
+    public ChangeEvent(Long userId, Entity entity, Action action, List<Long> ids, List<Schedule> schedules) {
+        this.userId = userId;
+        this.entity = entity;
+        this.action = action;
+        this.ids = ids;
+        this.schedules = schedules;
+    }
+
+    public static ChangeEvent todo(Long userId, Action action, List<Long> ids) {
+        return new ChangeEvent(userId, Entity.TODO, action, ids);
+    }
+
+    public static ChangeEvent todosCreated(Long userId, List<Schedule> schedules) {
+        return new ChangeEvent(userId, Entity.TODO, Action.CREATED, schedules.stream().map(Schedule::todoId).toList(),
+                schedules);
+    }
+
+    public static ChangeEvent folder(Long userId, Action action, Long id) {
+        return new ChangeEvent(userId, Entity.FOLDER, action, List.of(id));
+    }
+
+    public Long getUserId() { return userId; }
+    public Entity getEntity() { return entity; }
+    public Action getAction() { return action; }
+    public List<Long> getIds() { return ids; }
+    public List<Schedule> getSchedules() { return schedules; }
+}
@@ -0,0 +1,275 @@
+package com.example.todo.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ユーザーごとの変更イベントを SSE で配信する。
+ *
+ * 接続は Servlet の非同期モードで保持するため、待機中の接続はスレッドを占有しない。
+ * 発行側はイベントを購読者ごとの上限付きバッファに積むだけで、実際の書き込みは少数の送信スレッドが行う。
+ * バッファがあふれた購読者は遅いクライアントとみなして切断する（再接続時にクライアントが再取得する）。
+ * 1回の送信が send-timeout を超えた購読者も切断し、その送信スレッドが戻るまでは代わりの送信スレッドを追加して
+ * 他の購読者への配信を止めない。
+ */
+@Component
+public class ChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> HEARTBEAT =
+            SseEmitter.event().comment("heartbeat").build();
+
+    // 送信中でないことを表す値と、送信タイムアウトで切断済みであることを表す値
+    private static final long IDLE = 0;
+    private static final long STALLED = Long.MIN_VALUE;
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicInteger stalledSenders = new AtomicInteger();
+    private final ThreadPoolExecutor senders;
+    private final int senderThreads;
+    private final int maxSenderThreads;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Counter evictions;
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        // 送信を始めた時刻（System.nanoTime）。IDLE / STALLED は上記の意味
+        private final AtomicLong sendingSince = new AtomicLong(IDLE);
+        private volatile Thread sender;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    public ChangeFeed(@Value("${todo.events.buffer-size:256}") int bufferSize,
+                      @Value("${todo.events.sender-threads:8}") int senderThreads,
+                      @Value("${todo.events.max-sender-threads:32}") int maxSenderThreads,
+                      @Value("${todo.events.timeout:PT30M}") Duration timeout,
+                      @Value("${todo.events.send-timeout:PT10S}") Duration sendTimeout,
+                      MeterRegistry meterRegistry) {
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.senderThreads = senderThreads;
+        this.maxSenderThreads = Math.max(senderThreads, maxSenderThreads);
+        AtomicInteger sequence = new AtomicInteger();
+        // 通常は senderThreads 本で動かし、送信が詰まったスレッドの数だけ一時的に増やす
+        this.senders = new ThreadPoolExecutor(senderThreads, this.maxSenderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "sse-sender-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictions = Counter.builder("todo.events.evictions").register(meterRegistry);
+        Gauge.builder("todo.events.subscribers", subscriberCount, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("todo.events.stalled-senders", stalledSenders, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(ex -> close(subscriber));
+        // 追加と空になった集合の削除はどちらも compute の中で行い、削除される集合へ追加しないようにする
+        subscribers.compute(userId, (id, set) -> {
+            Set<Subscriber> targets = set != null ? set : ConcurrentHashMap.newKeySet();
+            targets.add(subscriber);
+            return targets;
+        });
+        subscriberCount.incrementAndGet();
+        // 接続直後にヘッダーを送り出すためハートビートを1つ積む
+        enqueue(subscriber, HEARTBEAT);
+        return emitter;
+    }
+
+    // コミット後に配信する（トランザクション外で発行された場合は即時）
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        publish(event.getUserId(), event.getEntity().name().toLowerCase(),
+                Map.of("action", event.getAction(), "ids", event.getIds()));
+    }
+
+    // 任意の名前のイベントをユーザーの購読者に配信する（リマインダーなど）
+    public void publish(Long userId, String name, Object data) {
+        if (userId == null) {
+            return;
+        }
+        Set<Subscriber> targets = subscribers.get(userId);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        // ペイロードは1度だけ組み立て、全購読者で共有する
+        Set<ResponseBodyEmitter.DataWithMediaType> payload = SseEmitter.event()
+                .name(name)
+                .data(data, MediaType.APPLICATION_JSON)
+                .build();
+        for (Subscriber subscriber : targets) {
+            enqueue(subscriber, payload);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${todo.events.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                enqueue(subscriber, HEARTBEAT);
+            }
+        }
+    }
+
+    // 送信が send-timeout を超えた購読者を切断する。送信スレッドには割り込み、戻るまでは代わりのスレッドを足す
+    @Scheduled(fixedRateString = "${todo.events.send-timeout-check:PT1S}")
+    public void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> targets : subscribers.values()) {
+            for (Subscriber subscriber : targets) {
+                long since = subscriber.sendingSince.get();
+                if (since == IDLE || since == STALLED || now - since < sendTimeoutNanos
+                        || !subscriber.sendingSince.compareAndSet(since, STALLED)) {
+                    continue;
+                }
+                evictions.increment();
+                logger.info("Evicting SSE subscriber for user {} after a send exceeded the timeout", subscriber.userId);
+                stalledSenders.incrementAndGet();
+                resizeSenders();
+                close(subscriber);
+                Thread sender = subscriber.sender;
+                if (sender != null) {
+                    sender.interrupt();
+                }
+            }
+        }
+    }
+
+    private synchronized void resizeSenders() {
+        senders.setCorePoolSize(Math.min(senderThreads + stalledSenders.get(), maxSenderThreads));
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> payload) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (!subscriber.buffer.offer(payload)) {
+            evictions.increment();
+            logger.info("Evicting slow SSE subscriber for user {}", subscriber.userId);
+            close(subscriber);
+            return;
+        }
+        scheduleDrain(subscriber);
+    }
+
+    // 購読者ごとに同時に1つの送信タスクだけが動くようにする
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        subscriber.sender = Thread.currentThread();
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> payload;
+            while (!subscriber.closed.get() && (payload = subscriber.buffer.poll()) != null) {
+                send(subscriber, payload);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            close(subscriber);
+        } finally {
+            subscriber.sender = null;
+            // 監視側からの割り込みを次のタスクに持ち越さない
+            Thread.interrupted();
+            subscriber.draining.set(false);
+            if (subscriber.closed.get()) {
+                complete(subscriber);
+            }
+        }
+        if (!subscriber.closed.get() && !subscriber.buffer.isEmpty()) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> payload) throws IOException {
+        long since = System.nanoTime();
+        subscriber.sendingSince.set(since);
+        try {
+            subscriber.emitter.send(payload);
+        } finally {
+            if (!subscriber.sendingSince.compareAndSet(since, IDLE)) {
+                // タイムアウトで切断済み。追加した代わりの送信スレッドを戻す
+                stalledSenders.decrementAndGet();
+                resizeSenders();
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            subscriber.buffer.clear();
+            remove(subscriber);
+            // 送信中の emitter を閉じると送信が終わるまで待たされるため、その場合は送信スレッドが閉じる
+            if (!subscriber.draining.get()) {
+                complete(subscriber);
+            }
+        }
+    }
+
+    private void complete(Subscriber subscriber) {
+        if (subscriber.completed.compareAndSet(false, true)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed.set(true);
+        AtomicBoolean removed = new AtomicBoolean();
+        subscribers.computeIfPresent(subscriber.userId, (id, set) -> {
+            removed.set(set.remove(subscriber));
+            return set.isEmpty() ? null : set;
+        });
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+}
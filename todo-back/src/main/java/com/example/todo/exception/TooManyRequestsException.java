@@ -0,0 +1,18 @@
+package com.example.todo.exception;
+
+/**
+ * 処理能力を超えたリクエストを拒否する場合に投げる（429 Too Many Requests）。
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -15,7 +15,11 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // 検証済みトークンの userId（後続のフィルタが参照する）
+    public static final String USER_ID_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".userId";
+
     private final JwtUtil jwtUtil;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil) {
         this.jwtUtil = jwtUtil;
@@ -29,14 +33,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             if (StringUtils.hasText(jwt)) {
+                // 検証済みトークンは JwtUtil 側のキャッシュから返される
                 Claims claims = jwtUtil.validateToken(jwt);
                 String username = claims.getSubject();
                 
                 if (username != null) {
                     UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(username, null, null);
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    authentication.setDetails(detailsSource.buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    if (claims.get("userId") instanceof Number userId) {
+                        request.setAttribute(USER_ID_ATTRIBUTE, userId.longValue());
+                    }
                 }
             }
         } catch (Exception ex) {
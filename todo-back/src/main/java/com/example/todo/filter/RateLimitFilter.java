@@ -0,0 +1,142 @@
+package com.example.todo.filter;
+
+import com.example.todo.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+
+/**
+ * /api 以下のリクエストの流量制限。
+ *
+ * 認証 API（/api/auth/**）とそれ以外（CRUD）で予算を分け、それぞれ
+ * クライアント IP ごと（CRUD は JWT の userId ごとにも）のトークンバケットと、
+ * 同時実行数の上限（バルクヘッド）を持つ。一方の種類のリクエストが詰まっても、
+ * もう一方のスレッドや DB 接続を使い切らないようにするため。
+ * 超過した場合は待たせずに 429 と Retry-After を返す。
+ *
+ * セキュリティのフィルタチェーンより後に実行されるため、JwtAuthenticationFilter が設定した userId を参照できる。
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final class Budget {
+        private final String name;
+        private final RateLimiter byIp;
+        private final RateLimiter byUser;
+        private final Semaphore bulkhead;
+        private final Counter rejectedByIp;
+        private final Counter rejectedByUser;
+        private final Counter rejectedByBulkhead;
+
+        private Budget(String name, RateLimiter byIp, RateLimiter byUser, int maxConcurrent, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.byIp = byIp;
+            this.byUser = byUser;
+            this.bulkhead = new Semaphore(maxConcurrent);
+            this.rejectedByIp = rejected(meterRegistry, "ip");
+            this.rejectedByUser = rejected(meterRegistry, "user");
+            this.rejectedByBulkhead = rejected(meterRegistry, "bulkhead");
+            Gauge.builder("todo.ratelimit.buckets", byIp, RateLimiter::size)
+                    .tag("budget", name).tag("key", "ip").register(meterRegistry);
+            if (byUser != null) {
+                Gauge.builder("todo.ratelimit.buckets", byUser, RateLimiter::size)
+                        .tag("budget", name).tag("key", "user").register(meterRegistry);
+            }
+        }
+
+        private Counter rejected(MeterRegistry meterRegistry, String reason) {
+            return Counter.builder("todo.ratelimit.rejected")
+                    .tag("budget", name).tag("reason", reason).register(meterRegistry);
+        }
+    }
+
+    private final boolean enabled;
+    private final Budget auth;
+    private final Budget crud;
+
+    public RateLimitFilter(@Value("${todo.ratelimit.enabled:true}") boolean enabled,
+                           @Value("${todo.ratelimit.idle-timeout:PT10M}") Duration idleTimeout,
+                           @Value("${todo.ratelimit.maximum-buckets:100000}") long maximumBuckets,
+                           @Value("${todo.ratelimit.auth.ip.rate:1}") double authIpRate,
+                           @Value("${todo.ratelimit.auth.ip.burst:10}") int authIpBurst,
+                           @Value("${todo.ratelimit.auth.max-concurrent:16}") int authMaxConcurrent,
+                           @Value("${todo.ratelimit.crud.ip.rate:50}") double crudIpRate,
+                           @Value("${todo.ratelimit.crud.ip.burst:200}") int crudIpBurst,
+                           @Value("${todo.ratelimit.crud.user.rate:20}") double crudUserRate,
+                           @Value("${todo.ratelimit.crud.user.burst:100}") int crudUserBurst,
+                           @Value("${todo.ratelimit.crud.max-concurrent:150}") int crudMaxConcurrent,
+                           MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.auth = new Budget("auth",
+                new RateLimiter(authIpRate, authIpBurst, idleTimeout, maximumBuckets),
+                null, authMaxConcurrent, meterRegistry);
+        this.crud = new Budget("crud",
+                new RateLimiter(crudIpRate, crudIpBurst, idleTimeout, maximumBuckets),
+                new RateLimiter(crudUserRate, crudUserBurst, idleTimeout, maximumBuckets),
+                crudMaxConcurrent, meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+                                    throws ServletException, IOException {
+        Budget budget = request.getRequestURI().startsWith("/api/auth/") ? auth : crud;
+
+        // ロードバランサー経由の場合は RemoteIpValve が X-Forwarded-For のクライアント IP に置き換えている
+        long waitNanos = budget.byIp.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            budget.rejectedByIp.increment();
+            reject(response, waitNanos);
+            return;
+        }
+        Object userId = request.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE);
+        if (budget.byUser != null && userId != null) {
+            waitNanos = budget.byUser.tryAcquire(userId);
+            if (waitNanos > 0) {
+                budget.rejectedByUser.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        if (!budget.bulkhead.tryAcquire()) {
+            budget.rejectedByBulkhead.increment();
+            reject(response, 0);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // 非同期処理（SSE など）の場合はここでスレッドが解放されるため、同時実行数からも外す
+            budget.bulkhead.release();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many requests, please retry later");
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.todo.filter;
+
+import com.example.todo.config.ReplicaStickiness;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * リクエストのユーザー（JWT の userId、なければ userId パラメータ）を ReplicaStickiness に設定する。
+ */
+@Component
+@ConditionalOnProperty(name = "todo.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    private final ReplicaStickiness stickiness;
+
+    public ReplicaStickinessFilter(ReplicaStickiness stickiness) {
+        this.stickiness = stickiness;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+                                    throws ServletException, IOException {
+        stickiness.bind(userIdOf(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stickiness.clear();
+        }
+    }
+
+    private static Long userIdOf(HttpServletRequest request) {
+        if (request.getAttribute(JwtAuthenticationFilter.USER_ID_ATTRIBUTE) instanceof Long userId) {
+            return userId;
+        }
+        String param = request.getParameter("userId");
+        if (param == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(param);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.todo.filter;
+
+import com.example.todo.config.StatementCounter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * リクエストごとの SQL 文の数を記録し、閾値を超えたリクエストを N+1 の疑いとしてログに出す。
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementCountFilter.class);
+
+    private final StatementCounter statementCounter;
+    private final DistributionSummary statements;
+    private final int warnThreshold;
+
+    public StatementCountFilter(StatementCounter statementCounter, MeterRegistry meterRegistry,
+                                @Value("${todo.metrics.statement-warn-threshold:20}") int warnThreshold) {
+        this.statementCounter = statementCounter;
+        this.warnThreshold = warnThreshold;
+        this.statements = DistributionSummary.builder("todo.requests.statements")
+                .description("SQL statements issued per HTTP request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+                                    throws ServletException, IOException {
+        statementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = statementCounter.stop();
+            statements.record(count);
+            if (count > warnThreshold) {
+                logger.warn("Possible N+1: {} {} issued {} SQL statements (threshold {})",
+                        request.getMethod(), request.getRequestURI(), count, warnThreshold);
+            }
+        }
+    }
+}
@@ -3,10 +3,25 @@ package com.example.todo.repository;
 
 import com.example.todo.entity.Folder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface FolderRepository extends JpaRepository<Folder, Long> {
     List<Folder> findByUserId(Long userId);
+
+    // ID 指定の単一行更新（影響行数を返す）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Folder f set f.name = :name where f.id = :id")
+    int updateNameById(@Param("id") Long id, @Param("name") String name);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Folder f where f.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    @Query("select f.userId from Folder f where f.id = :id")
+    Long findUserIdById(@Param("id") Long id);
 }
@@ -0,0 +1,49 @@
+package com.example.todo.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 繰り返しタスクの完了済みの回（todo_occurrences）。
+ */
+@Repository
+public class OccurrenceRepository {
+
+    public record Completion(Long todoId, LocalDateTime occurrenceStart, LocalDateTime completedAt) { }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public OccurrenceRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // 主キー (todo_id, occurrence_start) の範囲スキャン
+    public List<Completion> findCompleted(Collection<Long> todoIds, LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query(
+                "SELECT todo_id, occurrence_start, completed_at FROM todo_occurrences"
+                + " WHERE todo_id IN (:ids) AND occurrence_start >= :from AND occurrence_start < :to",
+                new MapSqlParameterSource("ids", todoIds).addValue("from", from).addValue("to", to),
+                (rs, rowNum) -> new Completion(rs.getLong(1),
+                        rs.getObject(2, LocalDateTime.class), rs.getObject(3, LocalDateTime.class)));
+    }
+
+    // 既に完了済みの場合は 0 を返す
+    public int complete(Long todoId, LocalDateTime occurrenceStart, LocalDateTime completedAt) {
+        return jdbcTemplate.update(
+                "INSERT IGNORE INTO todo_occurrences (todo_id, occurrence_start, completed_at)"
+                + " VALUES (:todoId, :start, :completedAt)",
+                new MapSqlParameterSource("todoId", todoId).addValue("start", occurrenceStart)
+                        .addValue("completedAt", completedAt));
+    }
+
+    public int uncomplete(Long todoId, LocalDateTime occurrenceStart) {
+        return jdbcTemplate.update(
+                "DELETE FROM todo_occurrences WHERE todo_id = :todoId AND occurrence_start = :start",
+                new MapSqlParameterSource("todoId", todoId).addValue("start", occurrenceStart));
+    }
+}
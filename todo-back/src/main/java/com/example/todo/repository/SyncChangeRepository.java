@@ -0,0 +1,78 @@
+package com.example.todo.repository;
+
+import com.example.todo.event.ChangeEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 差分同期用の変更記録（sync_changes）。
+ * ID のリストを1文の複数行 INSERT（JDBC バッチ + rewriteBatchedStatements）で書き込むため JdbcTemplate を使う。
+ */
+@Repository
+public class SyncChangeRepository {
+
+    public record Change(ChangeEvent.Entity entity, Long entityId, long version, boolean deleted) { }
+
+    private static final String UPSERT =
+            "INSERT INTO sync_changes (user_id, entity, entity_id, version, deleted) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE version = VALUES(version), deleted = VALUES(deleted)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyncChangeRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(Long userId, ChangeEvent.Entity entity, List<Long> ids, long version, boolean deleted) {
+        jdbcTemplate.batchUpdate(UPSERT, ids, ids.size(), (ps, id) -> {
+            ps.setLong(1, userId);
+            ps.setString(2, entity.name());
+            ps.setLong(3, id);
+            ps.setLong(4, version);
+            ps.setBoolean(5, deleted);
+        });
+    }
+
+    // フォルダ配下のタスクをまとめて記録する（フォルダ削除時に未分類へ移動する場合）
+    public int recordTodosInFolder(Long userId, Long folderId, long version) {
+        return jdbcTemplate.update(
+                "INSERT INTO sync_changes (user_id, entity, entity_id, version, deleted) "
+                + "SELECT user_id, 'TODO', id, ?, FALSE FROM todos WHERE folder_id = ? AND user_id = ? "
+                + "ON DUPLICATE KEY UPDATE version = ?, deleted = FALSE",
+                version, folderId, userId, version);
+    }
+
+    // 保持期間（秒）を過ぎたトゥームストーンについて、ユーザーごとの最大版数で sync_horizons を進める（下げることはない）
+    public int advanceHorizons(long retentionSeconds) {
+        return jdbcTemplate.update(
+                "INSERT INTO sync_horizons (user_id, version) "
+                + "SELECT * FROM (SELECT user_id, MAX(version) AS pruned FROM sync_changes"
+                + " WHERE deleted = TRUE AND changed_at < NOW(6) - INTERVAL ? SECOND GROUP BY user_id) AS p "
+                + "ON DUPLICATE KEY UPDATE version = GREATEST(sync_horizons.version, p.pruned)",
+                retentionSeconds);
+    }
+
+    // 保持期間を過ぎたトゥームストーンを最大 limit 件削除する（idx_sync_changes_tombstones の範囲スキャン）
+    public int deleteTombstones(long retentionSeconds, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM sync_changes WHERE deleted = TRUE AND changed_at < NOW(6) - INTERVAL ? SECOND LIMIT ?",
+                retentionSeconds, limit);
+    }
+
+    // 削除済みのトゥームストーンの最大版数（なければ 0）
+    public long findHorizon(Long userId) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM sync_horizons WHERE user_id = ?", Long.class, userId);
+        return versions.isEmpty() ? 0L : versions.get(0);
+    }
+
+    public List<Change> findSince(Long userId, long since) {
+        return jdbcTemplate.query(
+                "SELECT entity, entity_id, version, deleted FROM sync_changes WHERE user_id = ? AND version > ?",
+                (rs, rowNum) -> new Change(ChangeEvent.Entity.valueOf(rs.getString(1)), rs.getLong(2),
+                        rs.getLong(3), rs.getBoolean(4)),
+                userId, since);
+    }
+}
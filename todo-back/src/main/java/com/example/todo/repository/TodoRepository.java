@@ -1,12 +1,40 @@
 package com.example.todo.repository;
 
+import com.example.todo.dto.CalendarEntry;
+import com.example.todo.dto.TodoFeatures;
+import com.example.todo.dto.TodoOwner;
+import com.example.todo.dto.TodoStatsRow;
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Folder;
+import com.example.todo.entity.Frequency;
 import com.example.todo.entity.Todo;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TodoRepository extends JpaRepository<Todo, Long> {
+    // 一覧用の読み取り専用ビュー（エンティティを生成せず、必要な列だけを取得する）
+    String VIEW = "select new com.example.todo.dto.TodoView(t.id, t.title, t.completed, t.createdAt, t.userId,"
+                + " t.taskType, t.priority, t.startTime, t.frequency, t.context, t.folder.id, t.predictedCompletionTime)"
+                + " from Todo t";
+
+    // カレンダー表示用（期間との重なり判定に必要な列だけ）
+    String CALENDAR = "select new com.example.todo.dto.CalendarEntry(t.id, t.title, t.completed, t.priority,"
+                    + " t.startTime, t.endTime, t.folder.id) from Todo t";
+
     // ユーザーIDのみでの取得
     List<Todo> findByUserId(Long userId);
     
@@ -15,4 +43,202 @@ public interface TodoRepository extends JpaRepository<Todo, Long> {
     
     // ユーザーID で、かつフォルダに属さないタスクの取得
     List<Todo> findByUserIdAndFolderIsNull(Long userId);
+
+    @Query(VIEW + " where t.userId = :userId")
+    List<TodoView> findViewsByUserId(@Param("userId") Long userId);
+
+    @Query(VIEW + " where t.userId = :userId and t.folder.id = :folderId")
+    List<TodoView> findViewsByUserIdAndFolderId(@Param("userId") Long userId, @Param("folderId") Long folderId);
+
+    @Query(VIEW + " where t.userId = :userId and t.folder is null")
+    List<TodoView> findViewsByUserIdAndFolderIsNull(@Param("userId") Long userId);
+
+    @Query(VIEW + " where t.id in :ids")
+    List<TodoView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // [from, to) 内に開始するタスク（idx_todos_user_start の範囲スキャン）
+    @Query(CALENDAR + " where t.userId = :userId and t.startTime >= :from and t.startTime < :to")
+    List<CalendarEntry> findCalendarStartingBetween(@Param("userId") Long userId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+
+    // from より前に開始し、from より後まで続くタスク。開始時刻を [earliest, from) に絞り idx_todos_user_start を範囲スキャンする
+    @Query(CALENDAR + " where t.userId = :userId and t.startTime >= :earliest and t.startTime < :from and t.endTime > :from")
+    List<CalendarEntry> findCalendarSpanning(@Param("userId") Long userId,
+                                             @Param("earliest") LocalDateTime earliest,
+                                             @Param("from") LocalDateTime from);
+
+    // ユーザーのタスクの最長の所要時間（分）。idx_todos_user_span の末尾を読むだけで求まる
+    @Query("select max(t.spanMinutes) from Todo t where t.userId = :userId")
+    Integer findMaxSpanMinutesByUserId(@Param("userId") Long userId);
+
+    // 繰り返しタスク（回を展開する規則）
+    @Query(VIEW + " where t.userId = :userId and t.frequency in :frequencies and t.startTime < :to")
+    List<TodoView> findRecurringViewsByUserId(@Param("userId") Long userId,
+                                              @Param("frequencies") Collection<Frequency> frequencies,
+                                              @Param("to") LocalDateTime to);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query(VIEW + " where t.frequency in :frequencies and t.startTime is not null")
+    Stream<TodoView> streamRecurring(@Param("frequencies") Collection<Frequency> frequencies);
+
+    // キーセットページング。最初のページとカーソル以降のページで別の文にし、
+    // ":createdAt is null or ..." の OR でオプティマイザが範囲スキャンを選べなくなるのを避ける
+    @Query(VIEW + " where t.userId = :userId order by t.createdAt, t.id")
+    List<TodoView> findPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    // (createdAt, id) がカーソルより後ろの行を取得
+    @Query(VIEW + " where t.userId = :userId"
+         + " and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+         + " order by t.createdAt, t.id")
+    List<TodoView> findPageByUserIdAfter(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Limit limit);
+
+    @Query(VIEW + " where t.userId = :userId and t.folder.id = :folderId order by t.createdAt, t.id")
+    List<TodoView> findPageByUserIdAndFolderId(@Param("userId") Long userId,
+                                               @Param("folderId") Long folderId,
+                                               Limit limit);
+
+    @Query(VIEW + " where t.userId = :userId and t.folder.id = :folderId"
+         + " and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+         + " order by t.createdAt, t.id")
+    List<TodoView> findPageByUserIdAndFolderIdAfter(@Param("userId") Long userId,
+                                                    @Param("folderId") Long folderId,
+                                                    @Param("createdAt") LocalDateTime createdAt,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
+
+    @Query(VIEW + " where t.userId = :userId and t.folder is null order by t.createdAt, t.id")
+    List<TodoView> findPageByUserIdAndFolderIsNull(@Param("userId") Long userId, Limit limit);
+
+    @Query(VIEW + " where t.userId = :userId and t.folder is null"
+         + " and (t.createdAt > :createdAt or (t.createdAt = :createdAt and t.id > :id))"
+         + " order by t.createdAt, t.id")
+    List<TodoView> findPageByUserIdAndFolderIsNullAfter(@Param("userId") Long userId,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id,
+                                                        Limit limit);
+
+    // ストリーミング取得（MySQL Connector/J は fetchSize=Integer.MIN_VALUE で行単位の前方専用カーソルになる）
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query(VIEW + " where t.userId = :userId order by t.createdAt, t.id")
+    Stream<TodoView> streamByUserId(@Param("userId") Long userId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query(VIEW + " where t.userId = :userId and t.folder.id = :folderId order by t.createdAt, t.id")
+    Stream<TodoView> streamByUserIdAndFolderId(@Param("userId") Long userId, @Param("folderId") Long folderId);
+
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query(VIEW + " where t.userId = :userId and t.folder is null order by t.createdAt, t.id")
+    Stream<TodoView> streamByUserIdAndFolderIsNull(@Param("userId") Long userId);
+
+    @Query("select t.id as id, t.userId as userId from Todo t where t.id in :ids")
+    List<TodoOwner> findOwnersByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 一括更新・削除（1文で処理する）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Todo t set t.folder = :folder where t.id in :ids")
+    int updateFolderByIdIn(@Param("ids") Collection<Long> ids, @Param("folder") Folder folder);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Todo t set t.folder = null where t.id in :ids")
+    int clearFolderByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Todo t where t.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ID 指定の単一行更新（影響行数を返す）
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Todo t set t.title = :title, t.predictedCompletionTime = :predicted where t.id = :id")
+    int updateTitleById(@Param("id") Long id, @Param("title") String title, @Param("predicted") Integer predicted);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Todo t where t.id = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    @Query("select t.userId from Todo t where t.id = :id")
+    Long findUserIdById(@Param("id") Long id);
+
+    // フォルダ削除用の集合演算
+    long countByFolderId(Long folderId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Todo t set t.folder = null where t.folder.id = :folderId")
+    int clearFolder(@Param("folderId") Long folderId);
+
+    // 削除チャンクの ID（トゥームストーンを記録してから deleteByIdIn で削除する）
+    @Query("select t.id from Todo t where t.folder.id = :folderId order by t.id")
+    List<Long> findIdsByFolderId(@Param("folderId") Long folderId, Limit limit);
+
+    // 完了状態の変更。完了時は完了時刻（completed_at）と実績時間（1〜1440分の範囲のみ）も同じ UPDATE で記録する。
+    // 予定の終了時刻（end_time）には触れない。状態が変わらない行は更新しない（完了時刻を上書きしないため）。
+    // 学習済み（実績時間あり）の完了を取り消した時刻は uncompleted_at に残す。
+    // MySQL は SET を左から順に評価するため、actual_completion_time を書き換える前に判定する
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE todos SET completed = :completed,"
+         + " uncompleted_at = CASE WHEN NOT :completed AND actual_completion_time IS NOT NULL THEN :now ELSE uncompleted_at END,"
+         + " completed_at = CASE WHEN :completed THEN :now ELSE NULL END,"
+         + " actual_completion_time = CASE WHEN :completed AND TIMESTAMPDIFF(MINUTE, start_time, :now) BETWEEN 1 AND 1440"
+         + " THEN TIMESTAMPDIFF(MINUTE, start_time, :now) ELSE NULL END"
+         + " WHERE id IN (:ids) AND completed <> :completed", nativeQuery = true)
+    int updateCompletionByIdIn(@Param("ids") Collection<Long> ids,
+                               @Param("completed") boolean completed,
+                               @Param("now") LocalDateTime now);
+
+    // 学習済みの完了が最後に取り消された時刻（idx_todos_uncompleted_at の末尾を読むだけで求まる）
+    @Query("select max(t.uncompletedAt) from Todo t")
+    LocalDateTime findLastUncompletedAt();
+
+    // 完了時間予測の学習用
+    @Query("select t.id as id, t.userId as userId, t.taskType as taskType, t.priority as priority,"
+         + " t.frequency as frequency, t.context as context, t.startTime as startTime,"
+         + " t.completed as completed, t.actualCompletionTime as actualCompletionTime"
+         + " from Todo t where t.id in :ids")
+    List<TodoFeatures> findFeaturesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 全文検索（ft_todos_title_context）。query は BOOLEAN MODE の式。(created_at, id) のキーセットでページングし、
+    // ページングと同じく最初のページとカーソル以降のページを別の文にする
+    @Query(value = "SELECT * FROM todos t WHERE MATCH (t.title, t.context) AGAINST (:query IN BOOLEAN MODE)"
+         + " AND t.user_id = :userId"
+         + " AND (:folderId IS NULL OR t.folder_id = :folderId)"
+         + " AND (:completed IS NULL OR t.completed = :completed)"
+         + " ORDER BY t.created_at, t.id LIMIT :limit", nativeQuery = true)
+    List<Todo> search(@Param("userId") Long userId,
+                      @Param("query") String query,
+                      @Param("folderId") Long folderId,
+                      @Param("completed") Boolean completed,
+                      @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM todos t WHERE MATCH (t.title, t.context) AGAINST (:query IN BOOLEAN MODE)"
+         + " AND t.user_id = :userId"
+         + " AND (:folderId IS NULL OR t.folder_id = :folderId)"
+         + " AND (:completed IS NULL OR t.completed = :completed)"
+         + " AND (t.created_at > :createdAt OR (t.created_at = :createdAt AND t.id > :id))"
+         + " ORDER BY t.created_at, t.id LIMIT :limit", nativeQuery = true)
+    List<Todo> searchAfter(@Param("userId") Long userId,
+                           @Param("query") String query,
+                           @Param("folderId") Long folderId,
+                           @Param("completed") Boolean completed,
+                           @Param("createdAt") LocalDateTime createdAt,
+                           @Param("id") Long id,
+                           @Param("limit") int limit);
+
+    // ダッシュボード統計。行を転送せず、組み合わせごとの集計行だけを返す
+    @Query("select t.folder.id as folderId, t.taskType as taskType, t.priority as priority, t.completed as completed,"
+         + " count(t) as count, sum(t.predictedCompletionTime) as predictedMinutes,"
+         + " sum(t.actualCompletionTime) as actualMinutes"
+         + " from Todo t where t.userId = :userId"
+         + " group by t.folder.id, t.taskType, t.priority, t.completed")
+    List<TodoStatsRow> aggregateByUserId(@Param("userId") Long userId);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+                 @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select t.id as id, t.userId as userId, t.taskType as taskType, t.priority as priority,"
+         + " t.frequency as frequency, t.context as context, t.startTime as startTime,"
+         + " t.completed as completed, t.actualCompletionTime as actualCompletionTime"
+         + " from Todo t where t.completed = true and t.actualCompletionTime is not null and t.completedAt > :since")
+    Stream<TodoFeatures> streamCompletedSince(@Param("since") LocalDateTime since);
 }
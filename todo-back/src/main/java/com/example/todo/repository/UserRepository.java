@@ -2,10 +2,26 @@ package com.example.todo.repository;
 
 import com.example.todo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     // ユーザー名で検索するメソッド
     User findByUsername(String username);
+
+    // データ版数（ETag 用）。読み書き分離時もプライマリから読み、本文はこの版数に追いついたレプリカから読む（DataVersions.etag）
+    @Transactional
+    @Query(value = "SELECT version FROM user_data_versions WHERE user_id = :userId", nativeQuery = true)
+    Long findDataVersion(@Param("userId") Long userId);
+
+    // 呼び出し元のトランザクションに参加する（トランザクション外では単独で実行する）
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_data_versions (user_id, version) VALUES (:userId, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1", nativeQuery = true)
+    int incrementDataVersion(@Param("userId") Long userId);
 }
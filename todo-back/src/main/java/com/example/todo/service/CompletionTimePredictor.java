@@ -0,0 +1,333 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TodoFeatures;
+import com.example.todo.entity.CodedEnum;
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import com.example.todo.repository.TodoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * 完了済みタスクの実績時間から逐次学習する完了時間予測。
+ *
+ * 特徴量 (taskType, priority, frequency, context, 開始時間帯) を整数に符号化し（分類値は列挙型のコード）、
+ * 全体の統計は全特徴量の組、ユーザーごとの統計は (taskType, priority) の組をキーとして
+ * 件数と合計時間をプリミティブ配列に保持する。学習も予測も配列の定数回の読み書きだけで済む。
+ *
+ * 予測値は従来のヒューリスティックを事前値とし、全体平均、ユーザー平均の順に件数に応じて寄せていく。
+ * 統計は定期的にスナップショットとして保存し、起動時はスナップショット以降に完了した行だけを
+ * 1回のストリーミングで読み直して復元する。スナップショット以降に学習済みの完了が取り消されていた場合は、
+ * 減算を再現できないため全件から再構築する。
+ * ユーザー別の統計は max-users 件までで、あふれたユーザーの統計は破棄する（todo.prediction.user-evictions）。
+ */
+@Component
+public class CompletionTimePredictor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompletionTimePredictor.class);
+
+    private static final int TASK_TYPES = 5;
+    private static final int PRIORITIES = 4;
+    private static final int FREQUENCIES = 3;
+    private static final int CONTEXTS = 3;
+    private static final int HOURS = 3;
+    private static final int GLOBAL_SLOTS = TASK_TYPES * PRIORITIES * FREQUENCIES * CONTEXTS * HOURS;
+    private static final int USER_SLOTS = TASK_TYPES * PRIORITIES;
+
+    // 学習対象とする実績時間（分）の範囲
+    public static final int MIN_ACTUAL_MINUTES = 1;
+    public static final int MAX_ACTUAL_MINUTES = 24 * 60;
+
+    private static final int SNAPSHOT_MAGIC = 0x54445031;
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    // 各スロットは [件数, 合計分] の2要素
+    private final AtomicLongArray global = new AtomicLongArray(GLOBAL_SLOTS * 2);
+    private final Cache<Long, AtomicLongArray> users;
+    private final double priorWeight;
+    private final TodoRepository todoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String snapshotPath;
+    private final Counter userEvictions;
+    private final AtomicBoolean evictionLogged = new AtomicBoolean();
+
+    public CompletionTimePredictor(TodoRepository todoRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${todo.prediction.prior-weight:5}") double priorWeight,
+                                   @Value("${todo.prediction.max-users:100000}") long maxUsers,
+                                   @Value("${todo.prediction.snapshot-path:}") String snapshotPath,
+                                   MeterRegistry meterRegistry) {
+        this.todoRepository = todoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.priorWeight = priorWeight;
+        this.snapshotPath = snapshotPath;
+        this.userEvictions = Counter.builder("todo.prediction.user-evictions").register(meterRegistry);
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .evictionListener((Long userId, AtomicLongArray stats, RemovalCause cause) -> {
+                    userEvictions.increment();
+                    if (evictionLogged.compareAndSet(false, true)) {
+                        logger.warn("Evicting per-user prediction stats (max-users={}); evicted users fall back to global stats",
+                                maxUsers);
+                    }
+                })
+                .build();
+    }
+
+    public Integer predict(Long userId, String title, TaskType taskType, Priority priority,
+                           LocalDateTime startTime, Frequency frequency, String context) {
+        double prior = heuristic(title, taskType, priority, startTime, frequency, context);
+
+        int g = 2 * globalSlot(taskType, priority, frequency, context, startTime);
+        double estimate = (global.get(g + 1) + priorWeight * prior) / (global.get(g) + priorWeight);
+
+        AtomicLongArray stats = userId != null ? users.getIfPresent(userId) : null;
+        if (stats != null) {
+            int u = 2 * userSlot(taskType, priority);
+            estimate = (stats.get(u + 1) + priorWeight * estimate) / (stats.get(u) + priorWeight);
+        }
+        return (int) Math.round(estimate);
+    }
+
+    // 完了時に実績を加算する（取り消し時は sign = -1 で減算する）
+    public void learn(TodoFeatures todo, int actualMinutes, int sign) {
+        learn(todo.getUserId(), todo.getTaskType(), todo.getPriority(), todo.getFrequency(), todo.getContext(),
+              todo.getStartTime(), actualMinutes, sign);
+    }
+
+    private void learn(Long userId, TaskType taskType, Priority priority, Frequency frequency, String context,
+                       LocalDateTime startTime, int actualMinutes, int sign) {
+        int g = 2 * globalSlot(taskType, priority, frequency, context, startTime);
+        global.addAndGet(g, sign);
+        global.addAndGet(g + 1, (long) sign * actualMinutes);
+        if (userId != null) {
+            AtomicLongArray stats = users.get(userId, id -> new AtomicLongArray(USER_SLOTS * 2));
+            int u = 2 * userSlot(taskType, priority);
+            stats.addAndGet(u, sign);
+            stats.addAndGet(u + 1, (long) sign * actualMinutes);
+        }
+    }
+
+    // 開始から完了までの分数。学習対象外の場合は null
+    public static Integer actualMinutes(LocalDateTime startTime, LocalDateTime completedAt) {
+        if (startTime == null) {
+            return null;
+        }
+        long minutes = Duration.between(startTime, completedAt).toMinutes();
+        return minutes >= MIN_ACTUAL_MINUTES && minutes <= MAX_ACTUAL_MINUTES ? (int) minutes : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        LocalDateTime since = replayFrom(loadSnapshot());
+        long start = System.nanoTime();
+        long[] rows = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TodoFeatures> completed = todoRepository.streamCompletedSince(since)) {
+                completed.forEach(todo -> {
+                    learn(todo, todo.getActualCompletionTime(), 1);
+                    rows[0]++;
+                });
+            }
+        });
+        logger.info("Completion time predictor rebuilt from {} rows since {} in {} ms",
+                rows[0], since, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // スナップショット以降に学習済みの完了が取り消されていれば、統計を捨てて全件から読み直す
+    private LocalDateTime replayFrom(LocalDateTime watermark) {
+        if (!watermark.isAfter(BEGINNING)) {
+            return watermark;
+        }
+        LocalDateTime lastUncompleted = todoRepository.findLastUncompletedAt();
+        if (lastUncompleted == null || lastUncompleted.isBefore(watermark)) {
+            return watermark;
+        }
+        logger.info("Predictor snapshot at {} predates an un-completion at {}; rebuilding from all rows",
+                watermark, lastUncompleted);
+        reset();
+        return BEGINNING;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.prediction.snapshot-interval:PT10M}",
+               initialDelayString = "${todo.prediction.snapshot-interval:PT10M}")
+    @PreDestroy
+    public void snapshot() {
+        if (!StringUtils.hasText(snapshotPath)) {
+            return;
+        }
+        // ウォーターマークは配列を書き出す前に取る（境界の行は起動時に二重に数えられうるが、欠落はしない）
+        LocalDateTime watermark = LocalDateTime.now();
+        Path target = Path.of(snapshotPath);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(watermark.toInstant(ZoneOffset.UTC).toEpochMilli());
+            writeArray(out, global);
+            Map<Long, AtomicLongArray> snapshot = users.asMap();
+            out.writeInt(snapshot.size());
+            for (Map.Entry<Long, AtomicLongArray> entry : snapshot.entrySet()) {
+                out.writeLong(entry.getKey());
+                writeArray(out, entry.getValue());
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to write predictor snapshot to {}", target, ex);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            logger.error("Failed to replace predictor snapshot {}", target, ex);
+        }
+    }
+
+    // スナップショットを読み込み、そのウォーターマークを返す（なければ全件を読み直す）
+    private LocalDateTime loadSnapshot() {
+        if (!StringUtils.hasText(snapshotPath) || !Files.exists(Path.of(snapshotPath))) {
+            return BEGINNING;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Path.of(snapshotPath))))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                logger.warn("Ignoring predictor snapshot {} with unknown format", snapshotPath);
+                return BEGINNING;
+            }
+            LocalDateTime watermark = LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneOffset.UTC);
+            readArray(in, global);
+            int userCount = in.readInt();
+            for (int i = 0; i < userCount; i++) {
+                long userId = in.readLong();
+                AtomicLongArray stats = new AtomicLongArray(USER_SLOTS * 2);
+                readArray(in, stats);
+                users.put(userId, stats);
+            }
+            return watermark;
+        } catch (IOException ex) {
+            logger.warn("Failed to read predictor snapshot {}; rebuilding from scratch", snapshotPath, ex);
+            reset();
+            return BEGINNING;
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < global.length(); i++) {
+            global.set(i, 0);
+        }
+        users.invalidateAll();
+    }
+
+    private static void writeArray(DataOutputStream out, AtomicLongArray array) throws IOException {
+        out.writeInt(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            out.writeLong(array.get(i));
+        }
+    }
+
+    private static void readArray(DataInputStream in, AtomicLongArray array) throws IOException {
+        int length = in.readInt();
+        if (length != array.length()) {
+            throw new IOException("Unexpected array length " + length);
+        }
+        for (int i = 0; i < length; i++) {
+            array.set(i, in.readLong());
+        }
+    }
+
+    private static int globalSlot(TaskType taskType, Priority priority, Frequency frequency, String context,
+                                  LocalDateTime startTime) {
+        int slot = userSlot(taskType, priority);
+        slot = slot * FREQUENCIES + CodedEnum.codeOf(frequency);
+        slot = slot * CONTEXTS + contextCode(context);
+        return slot * HOURS + hourCode(startTime);
+    }
+
+    // 分類値は列挙型のコードをそのまま特徴量の符号にする（未指定は 0）
+    private static int userSlot(TaskType taskType, Priority priority) {
+        return CodedEnum.codeOf(taskType) * PRIORITIES + CodedEnum.codeOf(priority);
+    }
+
+    private static int contextCode(String context) {
+        if ("office".equalsIgnoreCase(context)) return 1;
+        if ("home".equalsIgnoreCase(context)) return 2;
+        return 0;
+    }
+
+    private static int hourCode(LocalDateTime startTime) {
+        if (startTime == null) return 0;
+        int hour = startTime.getHour();
+        if (hour < 8) return 1;
+        if (hour >= 19) return 2;
+        return 0;
+    }
+
+    // 学習データがない場合の事前値（従来のヒューリスティック）
+    private static double heuristic(String title, TaskType taskType, Priority priority,
+                                    LocalDateTime startTime, Frequency frequency, String context) {
+        int baseTime = title.length() * 2;
+        if (taskType != null) {
+            baseTime += switch (taskType) {
+                case CODING -> 20;
+                case STUDY -> 15;
+                case SHOPPING -> 10;
+                case EXERCISE -> 5;
+            };
+        }
+        if (priority != null) {
+            baseTime += switch (priority) {
+                case HIGH -> 15;
+                case MEDIUM -> 10;
+                case LOW -> 5;
+            };
+        }
+        if (frequency == Frequency.DAILY) {
+            baseTime -= 5;
+        } else if (frequency == Frequency.WEEKLY) {
+            baseTime += 5;
+        }
+        if ("office".equalsIgnoreCase(context)) {
+            baseTime -= 5;
+        } else if ("home".equalsIgnoreCase(context)) {
+            baseTime += 5;
+        }
+        if (startTime != null) {
+            int hour = startTime.getHour();
+            if (hour < 8) {
+                baseTime += 10;
+            }
+            if (hour >= 19) {
+                baseTime += 5;
+            }
+        }
+        return baseTime;
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.todo.service;
+
+import com.example.todo.cache.UserListCache;
+import com.example.todo.dto.TodoOwner;
+import com.example.todo.entity.Todo;
+import com.example.todo.repository.TodoRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 完了状態の切り替えの書き込み遅延（todo.completion.write-behind.enabled=true の場合のみ）。
+ *
+ * 切り替えはローカルのジャーナルに追記・fsync してから、Todo ごとの最終状態をメモリに保持して即座に応答する。
+ * 同じ Todo を何度切り替えても最後の状態だけが残り、flush-interval ごとに完了・未完了それぞれ1文の UPDATE で反映する。
+ * 一覧などの読み込みは overlay で未反映の状態を重ねて返す。
+ *
+ * ジャーナルはセグメント単位で、反映の開始時に新しいセグメントへ切り替え、反映がコミットされてから古いセグメントを削除する。
+ * 起動時に残っているセグメントを読み直すため、応答済みの切り替えはプロセスが落ちても失われない。
+ * 完了時刻（completed_at）は切り替えた時刻ではなく反映した時刻になる。
+ *
+ * 未反映の状態とジャーナルはノードごとに持つ。他のノードは反映されるまで（最大 flush-interval）DB の状態を返し、
+ * 同じ Todo を別のノードで切り替えた場合は後に反映したノードの状態が残る。複数ノードで有効にする場合は
+ * ユーザー単位で同じノードに振り分ける（スティッキーセッション）こと。
+ */
+@Component
+public class CompletionWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompletionWriteBehind.class);
+
+    // todoId(8) + userId(8) + completed(1)
+    private static final int RECORD_SIZE = 17;
+
+    private record Pending(Long userId, boolean completed) { }
+
+    // 追記中のジャーナルセグメント。fsync は直前の fsync 以降に書かれた分をまとめて行う（グループコミット）
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private volatile long written;
+        private long synced;
+
+        private Segment(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            this.written = channel.size();
+            this.synced = written;
+        }
+
+        private synchronized void syncTo(long position) throws IOException {
+            if (synced >= position) {
+                return;
+            }
+            long target = written;
+            channel.force(false);
+            synced = target;
+        }
+    }
+
+    private final boolean enabled;
+    private final String journalDir;
+    private final TodoService todoService;
+    private final TodoRepository todoRepository;
+    private final UserListCache listCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> pendingByUser = new ConcurrentHashMap<>();
+    private final Object journalLock = new Object();
+    private final List<Segment> retired = new ArrayList<>();
+    private Segment current;
+    private long segmentSequence;
+
+    public CompletionWriteBehind(@Value("${todo.completion.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${todo.completion.write-behind.journal-dir:}") String journalDir,
+                                 TodoService todoService, TodoRepository todoRepository, UserListCache listCache,
+                                 TransactionTemplate transactionTemplate) {
+        this.enabled = enabled;
+        this.journalDir = journalDir;
+        this.todoService = todoService;
+        this.todoRepository = todoRepository;
+        this.listCache = listCache;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // 前回の停止時に反映されなかったセグメントを読み直し、次回の反映対象にする
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        if (!StringUtils.hasText(journalDir)) {
+            throw new IllegalStateException("todo.completion.write-behind.journal-dir is required when write-behind is enabled");
+        }
+        Path dir = Files.createDirectories(Path.of(journalDir));
+        List<Path> leftovers;
+        try (Stream<Path> files = Files.list(dir)) {
+            leftovers = files.filter(path -> path.getFileName().toString().matches("completion-\\d+\\.journal"))
+                    .sorted((a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)))
+                    .toList();
+        }
+        for (Path path : leftovers) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            // 書き込み途中で落ちた末尾の不完全なレコードは応答前のものなので無視する
+            while (buffer.remaining() >= RECORD_SIZE) {
+                long todoId = buffer.getLong();
+                long userId = buffer.getLong();
+                put(todoId, new Pending(userId, buffer.get() != 0));
+            }
+            retired.add(new Segment(path));
+            segmentSequence = Math.max(segmentSequence, sequenceOf(path));
+        }
+        current = openSegment();
+        if (!leftovers.isEmpty()) {
+            logger.info("Recovered {} pending completion toggles from {} journal segments", pending.size(), leftovers.size());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // 切り替えをジャーナルに記録してから保持する。戻った時点で永続化済み
+    public void toggle(Long todoId, boolean completed) {
+        Long userId = listCache.owner(Todo.class, todoId, () -> todoRepository.findUserIdById(todoId));
+        if (userId == null) {
+            throw new RuntimeException("Todo not found with id: " + todoId);
+        }
+        append(Map.of(todoId, userId), completed);
+    }
+
+    // 一括の切り替え。存在する Todo だけを1回の追記と fsync で記録し、その件数を返す
+    public int toggleAll(List<Long> todoIds, boolean completed) {
+        Map<Long, Long> owners = new LinkedHashMap<>();
+        for (TodoOwner owner : todoRepository.findOwnersByIdIn(todoIds)) {
+            owners.put(owner.getId(), owner.getUserId());
+        }
+        if (!owners.isEmpty()) {
+            append(owners, completed);
+        }
+        return owners.size();
+    }
+
+    private void append(Map<Long, Long> owners, boolean completed) {
+        ByteBuffer records = ByteBuffer.allocate(RECORD_SIZE * owners.size());
+        owners.forEach((todoId, userId) ->
+                records.putLong(todoId).putLong(userId).put((byte) (completed ? 1 : 0)));
+        records.flip();
+        Segment segment;
+        long position;
+        try {
+            // 追記とメモリへの反映をセグメントの切り替えと排他にし、各切り替えがどのセグメントの反映に含まれるかを一意にする
+            synchronized (journalLock) {
+                segment = current;
+                while (records.hasRemaining()) {
+                    segment.channel.write(records);
+                }
+                position = segment.written += records.limit();
+                owners.forEach((todoId, userId) -> put(todoId, new Pending(userId, completed)));
+            }
+            segment.syncTo(position);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to journal completion toggle", ex);
+        }
+    }
+
+    // 未反映の切り替えがあるユーザーは、版数が変わっていなくても一覧の内容が変わっている
+    public boolean hasPending(Long userId) {
+        return userId != null && pendingByUser.containsKey(userId);
+    }
+
+    // 読み込んだ一覧に未反映の完了状態を重ねる
+    public <T> List<T> overlay(Long userId, List<T> items, Function<T, Long> id, BiFunction<T, Boolean, T> withCompleted) {
+        if (!hasPending(userId)) {
+            return items;
+        }
+        List<T> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            result.add(overlay(item, id, withCompleted));
+        }
+        return result;
+    }
+
+    public <T> T overlay(T item, Function<T, Long> id, BiFunction<T, Boolean, T> withCompleted) {
+        if (pending.isEmpty()) {
+            return item;
+        }
+        Pending state = pending.get(id.apply(item));
+        return state != null ? withCompleted.apply(item, state.completed()) : item;
+    }
+
+    // 保持している最終状態を、完了・未完了それぞれ1文の UPDATE で1トランザクションに反映する
+    @Scheduled(fixedDelayString = "${todo.completion.write-behind.flush-interval:PT0.5S}")
+    public synchronized void flush() {
+        if (!enabled || (pending.isEmpty() && retired.isEmpty())) {
+            return;
+        }
+        Map<Long, Pending> snapshot;
+        try {
+            synchronized (journalLock) {
+                snapshot = Map.copyOf(pending);
+                retired.add(current);
+                current = openSegment();
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to rotate completion journal", ex);
+            return;
+        }
+
+        List<Long> completed = new ArrayList<>();
+        List<Long> incomplete = new ArrayList<>();
+        snapshot.forEach((todoId, state) -> (state.completed() ? completed : incomplete).add(todoId));
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!completed.isEmpty()) {
+                    todoService.updateCompletion(completed, true);
+                }
+                if (!incomplete.isEmpty()) {
+                    todoService.updateCompletion(incomplete, false);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // 保持している状態とセグメントは残し、次回にまとめて反映する
+            logger.error("Failed to flush {} completion toggles", snapshot.size(), ex);
+            return;
+        }
+
+        // 反映中に再び切り替えられたものは次回の反映対象として残す
+        snapshot.forEach(this::remove);
+        for (Segment segment : retired) {
+            try {
+                segment.syncTo(Long.MAX_VALUE);
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException ex) {
+                logger.warn("Failed to delete completion journal {}", segment.path, ex);
+            }
+        }
+        retired.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        synchronized (journalLock) {
+            current.channel.close();
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(current.path);
+            }
+        }
+    }
+
+    // pending と pendingByUser は同じ Todo のエントリの操作内で更新し、件数を食い違わせない
+    private void put(long todoId, Pending state) {
+        pending.compute(todoId, (id, previous) -> {
+            if (previous == null) {
+                pendingByUser.merge(state.userId(), 1, Integer::sum);
+            }
+            return state;
+        });
+    }
+
+    private void remove(Long todoId, Pending state) {
+        pending.computeIfPresent(todoId, (id, existing) -> {
+            if (existing != state) {
+                return existing;
+            }
+            pendingByUser.computeIfPresent(state.userId(), (userId, count) -> count > 1 ? count - 1 : null);
+            return null;
+        });
+    }
+
+    private Segment openSegment() throws IOException {
+        return new Segment(Path.of(journalDir).resolve("completion-" + (++segmentSequence) + ".journal"));
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring("completion-".length(), name.length() - ".journal".length()));
+    }
+}
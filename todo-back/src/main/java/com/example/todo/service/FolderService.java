@@ -1,38 +1,189 @@
 // com/example/todo/service/FolderService.java
 package com.example.todo.service;
 
+import com.example.todo.cache.UserListCache;
+import com.example.todo.dto.FolderDeletionStatus;
 import com.example.todo.entity.Folder;
+import com.example.todo.event.ChangeEvent;
 import com.example.todo.repository.FolderRepository;
+import com.example.todo.repository.TodoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+// 公開メソッドごとの処理時間（todo.service{class, method}）
+@Timed(value = "todo.service", histogram = true)
 @Service
 public class FolderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FolderService.class);
+
     private final FolderRepository folderRepository;
+    private final TodoRepository todoRepository;
+    private final UserListCache listCache;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor taskExecutor;
+    private final int deleteChunkSize;
+    private final ApplicationEventPublisher events;
+    private final SyncService syncService;
+    // 非同期削除の進捗（完了後しばらく参照できるよう保持する）
+    private final Cache<String, DeletionJob> deletionJobs = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .maximumSize(10_000)
+            .build();
+
+    private static final class DeletionJob {
+        private final String jobId;
+        private final Long folderId;
+        private final long total;
+        private final AtomicLong processed = new AtomicLong();
+        private volatile FolderDeletionStatus.State state = FolderDeletionStatus.State.RUNNING;
+
+        private DeletionJob(String jobId, Long folderId, long total) {
+            this.jobId = jobId;
+            this.folderId = folderId;
+            this.total = total;
+        }
 
-    public FolderService(FolderRepository folderRepository) {
+        private FolderDeletionStatus snapshot() {
+            return new FolderDeletionStatus(jobId, folderId, state, processed.get(), total);
+        }
+    }
+
+    public FolderService(FolderRepository folderRepository, TodoRepository todoRepository, UserListCache listCache,
+                         TransactionTemplate transactionTemplate,
+                         @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                         @Value("${todo.folders.delete-chunk-size:1000}") int deleteChunkSize,
+                         ApplicationEventPublisher events, SyncService syncService) {
         this.folderRepository = folderRepository;
+        this.todoRepository = todoRepository;
+        this.listCache = listCache;
+        this.transactionTemplate = transactionTemplate;
+        this.taskExecutor = taskExecutor;
+        this.deleteChunkSize = deleteChunkSize;
+        this.events = events;
+        this.syncService = syncService;
     }
 
+    // 差分同期の記録を保存と同じトランザクションで行う
+    @Transactional
     public Folder createFolder(String name, Long userId) {
         Folder folder = new Folder(name, userId);
-        return folderRepository.save(folder);
+        Folder saved = folderRepository.save(folder);
+        listCache.rememberOwner(Folder.class, saved.getId(), userId);
+        listCache.invalidate(userId);
+        events.publishEvent(ChangeEvent.folder(userId, ChangeEvent.Action.CREATED, saved.getId()));
+        return saved;
     }
 
     public List<Folder> getFoldersByUserId(Long userId) {
-        return folderRepository.findByUserId(userId);
+        return listCache.get(userId, null, UserListCache.View.FOLDERS, () -> {
+            List<Folder> folders = folderRepository.findByUserId(userId);
+            folders.forEach(folder -> listCache.rememberOwner(Folder.class, folder.getId(), folder.getUserId()));
+            return folders;
+        });
+    }
+
+    // 名前だけを更新する UPDATE 1文（影響行数を返す）
+    @Transactional
+    public int updateFolder(Long folderId, String newName) {
+        int updated = folderRepository.updateNameById(folderId, newName);
+        if (updated == 0) {
+            throw new RuntimeException("Folder not found with id: " + folderId);
+        }
+        Long userId = listCache.invalidateOwner(Folder.class, folderId, () -> folderRepository.findUserIdById(folderId));
+        if (userId != null) {
+            events.publishEvent(ChangeEvent.folder(userId, ChangeEvent.Action.UPDATED, folderId));
+        }
+        return updated;
+    }
+
+    /**
+     * フォルダを削除する。配下のタスクはエンティティを読み込まずに集合演算で処理する。
+     * moveTodos が true の場合は UPDATE 1文で未分類に移動し、false の場合はチャンク単位の DELETE で削除する。
+     */
+    public void deleteFolder(Long folderId, boolean moveTodos) {
+        Long userId = folderRepository.findUserIdById(folderId);
+        if (userId == null) {
+            return;
+        }
+        runDeletion(new DeletionJob(null, folderId, 0), userId, moveTodos);
+    }
+
+    // 大きなフォルダ向けの非同期削除。進捗は getDeletionStatus で取得する
+    public FolderDeletionStatus deleteFolderAsync(Long folderId, boolean moveTodos) {
+        Long userId = folderRepository.findUserIdById(folderId);
+        if (userId == null) {
+            throw new RuntimeException("Folder not found with id: " + folderId);
+        }
+        DeletionJob job = new DeletionJob(UUID.randomUUID().toString(), folderId, todoRepository.countByFolderId(folderId));
+        deletionJobs.put(job.jobId, job);
+        taskExecutor.execute(() -> {
+            try {
+                runDeletion(job, userId, moveTodos);
+            } catch (RuntimeException ex) {
+                job.state = FolderDeletionStatus.State.FAILED;
+                logger.error("Failed to delete folder {}", folderId, ex);
+            }
+        });
+        return job.snapshot();
     }
 
-    public Folder updateFolder(Long folderId, String newName) {
-        Folder folder = folderRepository.findById(folderId)
-            .orElseThrow(() -> new RuntimeException("Folder not found with id: " + folderId));
-        folder.setName(newName);
-        return folderRepository.save(folder);
+    public FolderDeletionStatus getDeletionStatus(String jobId) {
+        DeletionJob job = deletionJobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new RuntimeException("Deletion job not found: " + jobId);
+        }
+        return job.snapshot();
     }
 
-    public void deleteFolder(Long folderId) {
-        folderRepository.deleteById(folderId);
+    private void runDeletion(DeletionJob job, Long userId, boolean moveTodos) {
+        Long folderId = job.folderId;
+        listCache.invalidate(userId);
+        if (moveTodos) {
+            job.processed.addAndGet(transactionTemplate.execute(status -> {
+                syncService.recordTodosInFolder(userId, folderId);
+                return todoRepository.clearFolder(folderId);
+            }));
+        } else {
+            // チャンクごとに別トランザクションにしてロック保持時間と undo ログを抑える。トゥームストーンも同じトランザクションで記録される
+            // 削除件数は並行した削除で chunk より少なくなることがあるため、ID が見つからなくなるまで続ける
+            while (true) {
+                Integer deleted = transactionTemplate.execute(status -> {
+                    List<Long> ids = todoRepository.findIdsByFolderId(folderId, Limit.of(deleteChunkSize));
+                    if (ids.isEmpty()) {
+                        return null;
+                    }
+                    // 差分同期の記録・SSE・繰り返しタスクの予定の取り消しはイベント経由で行う
+                    events.publishEvent(ChangeEvent.todo(userId, ChangeEvent.Action.DELETED, ids));
+                    return todoRepository.deleteByIdIn(ids);
+                });
+                if (deleted == null) {
+                    break;
+                }
+                job.processed.addAndGet(deleted);
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> folderRepository.deleteRowById(folderId));
+        listCache.invalidate(userId);
+        listCache.forgetOwner(Folder.class, folderId);
+        // 配下のタスクの変更もフォルダ削除イベントに含める（クライアントは一覧を再取得する）
+        events.publishEvent(ChangeEvent.folder(userId, ChangeEvent.Action.DELETED, folderId));
+        job.state = FolderDeletionStatus.State.COMPLETED;
     }
     
     public Folder getFolderById(Long folderId) {
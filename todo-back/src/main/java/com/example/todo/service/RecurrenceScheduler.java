@@ -0,0 +1,133 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Frequency;
+import com.example.todo.event.ChangeEvent;
+import com.example.todo.event.ChangeFeed;
+import com.example.todo.repository.TodoRepository;
+import com.example.todo.util.HashedWheelTimer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 繰り返しタスクのリマインダー。規則ごとに次の回の開始時刻をタイミングホイールに1件だけ登録し、
+ * 発火したら SSE の reminder イベントを送って次の回を登録し直す（ロールオーバー）。
+ * 登録・取り消しは O(1) で、tick あたりの処理は1バケット分だけのため、規則数が多くても tick のコストは一定に近い。
+ */
+@Component
+public class RecurrenceScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecurrenceScheduler.class);
+
+    // 予定に必要な最小限の情報（規則数が多くてもメモリを抑える）
+    private record Rule(Long todoId, Long userId, LocalDateTime anchor, int periodDays) { }
+
+    private record Pending(Rule rule, LocalDateTime occurrenceStart, HashedWheelTimer.Timeout timeout) { }
+
+    private final TodoRepository todoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeed changeFeed;
+    private final HashedWheelTimer wheel;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    public RecurrenceScheduler(TodoRepository todoRepository, TransactionTemplate transactionTemplate, ChangeFeed changeFeed,
+                               @Value("${todo.recurrence.tick:PT1S}") Duration tick,
+                               @Value("${todo.recurrence.wheel-size:4096}") int wheelSize) {
+        this.todoRepository = todoRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.changeFeed = changeFeed;
+        // 発火時の処理は SSE のキューに積むだけなのでワーカースレッドで直接実行する
+        this.wheel = new HashedWheelTimer(tick, wheelSize, Runnable::run);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleAll() {
+        long start = System.nanoTime();
+        long[] count = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TodoView> rules = todoRepository.streamRecurring(RecurrenceService.RECURRING)) {
+                rules.forEach(rule -> {
+                    schedule(rule);
+                    count[0]++;
+                });
+            }
+        });
+        logger.info("Scheduled {} recurring todos in {} ms", count[0], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // 作成されたタスクの予定を登録し、削除されたタスクの予定を取り消す。
+    // 繰り返し設定が変わりうる変更はイベントに設定を持つため、行は読み直さない（完了・移動・タイトル変更は予定に影響しない）
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(ChangeEvent event) {
+        if (event.getEntity() != ChangeEvent.Entity.TODO) {
+            return;
+        }
+        if (event.getAction() == ChangeEvent.Action.DELETED) {
+            event.getIds().forEach(this::cancel);
+            return;
+        }
+        for (ChangeEvent.Schedule schedule : event.getSchedules()) {
+            schedule(schedule.todoId(), event.getUserId(), schedule.frequency(), schedule.startTime());
+        }
+    }
+
+    private void schedule(TodoView todo) {
+        schedule(todo.getId(), todo.getUserId(), todo.getFrequency(), todo.getStartTime());
+    }
+
+    // 繰り返しでなくなったタスクは取り消す
+    private void schedule(Long todoId, Long userId, Frequency frequency, LocalDateTime startTime) {
+        int period = RecurrenceService.periodDays(frequency);
+        if (period == 0 || startTime == null) {
+            cancel(todoId);
+            return;
+        }
+        Rule rule = new Rule(todoId, userId, startTime, period);
+        LocalDateTime now = LocalDateTime.now();
+        schedule(rule, RecurrenceService.firstOnOrAfter(rule.anchor(), rule.periodDays(), now), now);
+    }
+
+    private void schedule(Rule rule, LocalDateTime occurrenceStart, LocalDateTime now) {
+        HashedWheelTimer.Timeout timeout =
+                wheel.schedule(() -> fire(rule, occurrenceStart), Duration.between(now, occurrenceStart));
+        Pending previous = pending.put(rule.todoId(), new Pending(rule, occurrenceStart, timeout));
+        if (previous != null) {
+            previous.timeout().cancel();
+        }
+    }
+
+    private void fire(Rule rule, LocalDateTime occurrenceStart) {
+        // 取り消し・再登録と競合した古い予定は無視する
+        Pending current = pending.get(rule.todoId());
+        if (current == null || current.rule() != rule || !current.occurrenceStart().equals(occurrenceStart)) {
+            return;
+        }
+        changeFeed.publish(rule.userId(), "reminder",
+                Map.of("todoId", rule.todoId(), "occurrenceStart", occurrenceStart.toString()));
+        schedule(rule, occurrenceStart.plusDays(rule.periodDays()), LocalDateTime.now());
+    }
+
+    private void cancel(Long todoId) {
+        Pending removed = pending.remove(todoId);
+        if (removed != null) {
+            removed.timeout().cancel();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.close();
+    }
+}
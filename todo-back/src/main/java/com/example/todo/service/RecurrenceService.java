@@ -0,0 +1,119 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.Occurrence;
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Frequency;
+import com.example.todo.event.ChangeEvent;
+import com.example.todo.repository.OccurrenceRepository;
+import com.example.todo.repository.TodoRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 繰り返しタスク。daily / weekly の Todo はその start_time を起点とする規則で、
+ * 回は読み込み時に指定期間の分だけ展開する。完了済みの回だけを todo_occurrences に保存するため、
+ * テーブルは暦の経過ではなく完了数に比例して増える。
+ */
+@Timed(value = "todo.service", histogram = true)
+@Service
+public class RecurrenceService {
+
+    static final List<Frequency> RECURRING = List.of(Frequency.DAILY, Frequency.WEEKLY);
+
+    private final TodoRepository todoRepository;
+    private final OccurrenceRepository occurrenceRepository;
+    private final ApplicationEventPublisher events;
+    private final Duration maxWindow;
+
+    public RecurrenceService(TodoRepository todoRepository, OccurrenceRepository occurrenceRepository,
+                             ApplicationEventPublisher events,
+                             @Value("${todo.recurrence.max-window:P92D}") Duration maxWindow) {
+        this.todoRepository = todoRepository;
+        this.occurrenceRepository = occurrenceRepository;
+        this.events = events;
+        this.maxWindow = maxWindow;
+    }
+
+    // 周期（日数）。繰り返しでない場合は 0
+    static int periodDays(Frequency frequency) {
+        if (frequency == Frequency.DAILY) return 1;
+        if (frequency == Frequency.WEEKLY) return 7;
+        return 0;
+    }
+
+    // from 以降で最初の回の開始時刻
+    static LocalDateTime firstOnOrAfter(LocalDateTime anchor, int periodDays, LocalDateTime from) {
+        if (!from.isAfter(anchor)) {
+            return anchor;
+        }
+        long periods = ChronoUnit.DAYS.between(anchor, from) / periodDays;
+        LocalDateTime candidate = anchor.plusDays(periods * periodDays);
+        return candidate.isBefore(from) ? candidate.plusDays(periodDays) : candidate;
+    }
+
+    // [from, to) に開始する回を、完了状態とあわせて開始時刻順に返す
+    @Transactional(readOnly = true)
+    public List<Occurrence> getOccurrences(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from) || Duration.between(from, to).compareTo(maxWindow) > 0) {
+            throw new IllegalArgumentException("Occurrence window must be positive and at most " + maxWindow);
+        }
+        List<TodoView> rules = todoRepository.findRecurringViewsByUserId(userId, RECURRING, to);
+        if (rules.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Map<LocalDateTime, LocalDateTime>> completed = new HashMap<>();
+        for (OccurrenceRepository.Completion completion : occurrenceRepository.findCompleted(
+                rules.stream().map(TodoView::getId).toList(), from, to)) {
+            completed.computeIfAbsent(completion.todoId(), id -> new HashMap<>())
+                     .put(completion.occurrenceStart(), completion.completedAt());
+        }
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (TodoView rule : rules) {
+            int period = periodDays(rule.getFrequency());
+            Map<LocalDateTime, LocalDateTime> done = completed.getOrDefault(rule.getId(), Map.of());
+            for (LocalDateTime start = firstOnOrAfter(rule.getStartTime(), period, from);
+                 start.isBefore(to); start = start.plusDays(period)) {
+                occurrences.add(new Occurrence(rule, start, done.get(start)));
+            }
+        }
+        occurrences.sort(Comparator.comparing(Occurrence::getOccurrenceStart));
+        return occurrences;
+    }
+
+    // 回の完了・取り消し。状態が変わった場合は 1 を返す
+    @Transactional
+    public int updateOccurrence(Long todoId, LocalDateTime occurrenceStart, boolean completed) {
+        List<TodoView> rows = todoRepository.findViewsByIdIn(List.of(todoId));
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Todo not found with id: " + todoId);
+        }
+        TodoView rule = rows.get(0);
+        int period = periodDays(rule.getFrequency());
+        if (period == 0 || rule.getStartTime() == null) {
+            throw new IllegalArgumentException("Todo " + todoId + " is not recurring");
+        }
+        if (!firstOnOrAfter(rule.getStartTime(), period, occurrenceStart).equals(occurrenceStart)) {
+            throw new IllegalArgumentException("No occurrence of todo " + todoId + " starts at " + occurrenceStart);
+        }
+
+        int updated = completed
+            ? occurrenceRepository.complete(todoId, occurrenceStart, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS))
+            : occurrenceRepository.uncomplete(todoId, occurrenceStart);
+        if (updated > 0) {
+            events.publishEvent(ChangeEvent.todo(rule.getUserId(), ChangeEvent.Action.UPDATED, List.of(todoId)));
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.todo.service;
+
+import com.example.todo.cache.DataVersions;
+import com.example.todo.dto.SyncResponse;
+import com.example.todo.entity.Folder;
+import com.example.todo.entity.Todo;
+import com.example.todo.event.ChangeEvent;
+import com.example.todo.repository.FolderRepository;
+import com.example.todo.repository.SyncChangeRepository;
+import com.example.todo.repository.TodoRepository;
+import com.example.todo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 差分同期。変更ごとにユーザーの版数を +1 し、変更されたエンティティを同じ版数で sync_changes に記録する。
+ * 版数の更新で行ロックを取るため、同じユーザーの変更は版数順にコミットされ、since より後の範囲スキャンで取りこぼしが出ない。
+ *
+ * 削除の記録（トゥームストーン）は tombstone-retention を過ぎたら削除する。削除したトゥームストーンの最大版数を
+ * ユーザーごとの下限（sync_horizons）として先に記録し、それより前の since には全件を返す（クライアントは全件を取り直す）。
+ */
+@Service
+public class SyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
+    private final DataVersions dataVersions;
+    private final SyncChangeRepository syncChangeRepository;
+    private final UserRepository userRepository;
+    private final TodoRepository todoRepository;
+    private final FolderRepository folderRepository;
+    private final long retentionSeconds;
+    private final int pruneChunkSize;
+
+    public SyncService(DataVersions dataVersions, SyncChangeRepository syncChangeRepository, UserRepository userRepository,
+                       TodoRepository todoRepository, FolderRepository folderRepository,
+                       @Value("${todo.sync.tombstone-retention:P30D}") Duration retention,
+                       @Value("${todo.sync.prune-chunk-size:1000}") int pruneChunkSize) {
+        this.dataVersions = dataVersions;
+        this.syncChangeRepository = syncChangeRepository;
+        this.userRepository = userRepository;
+        this.todoRepository = todoRepository;
+        this.folderRepository = folderRepository;
+        this.retentionSeconds = retention.toSeconds();
+        this.pruneChunkSize = pruneChunkSize;
+    }
+
+    // 発行元のトランザクション内で同期的に呼ばれる（トランザクション外で発行された場合は版数と記録を1トランザクションで書く）
+    @EventListener
+    @Transactional
+    public void onChange(ChangeEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        record(event.getUserId(), event.getEntity(), event.getIds(), event.getAction() == ChangeEvent.Action.DELETED);
+    }
+
+    @Transactional
+    public void record(Long userId, ChangeEvent.Entity entity, List<Long> ids, boolean deleted) {
+        long version = dataVersions.increment(userId);
+        syncChangeRepository.record(userId, entity, ids, version, deleted);
+    }
+
+    // フォルダ配下のタスクを未分類へ移動する直前に、同じトランザクション内で記録する
+    @Transactional
+    public void recordTodosInFolder(Long userId, Long folderId) {
+        long version = dataVersions.increment(userId);
+        syncChangeRepository.recordTodosInFolder(userId, folderId, version);
+    }
+
+    /**
+     * 保持期間を過ぎたトゥームストーンを削除する。下限の記録を先にコミットするため、途中で失敗しても
+     * 削除を伝えられない差分を返すことはない（下限だけ進んだ場合は全件を返す範囲が広がるだけ）。
+     * 各ノードで実行されるが、どちらの文も冪等のため重なっても問題ない。
+     */
+    @Scheduled(fixedDelayString = "${todo.sync.prune-interval:PT1H}", initialDelayString = "${todo.sync.prune-interval:PT1H}")
+    public void pruneTombstones() {
+        syncChangeRepository.advanceHorizons(retentionSeconds);
+        long total = 0;
+        int deleted;
+        do {
+            // チャンクごとに自動コミットし、ロック保持時間を抑える
+            deleted = syncChangeRepository.deleteTombstones(retentionSeconds, pruneChunkSize);
+            total += deleted;
+        } while (deleted > 0);
+        if (total > 0) {
+            logger.info("Pruned {} sync tombstones older than {} s", total, retentionSeconds);
+        }
+    }
+
+    /**
+     * since より後の変更を返す。since がない（または 0 の）場合と、since が削除済みのトゥームストーンより前の場合は全件を返す。
+     * 版数と変更記録を同じスナップショット（REPEATABLE READ）から読むため、返した token までの変更はすべて含まれる。
+     */
+    @Transactional(readOnly = true)
+    public SyncResponse getChanges(Long userId, Long since) {
+        Long current = userRepository.findDataVersion(userId);
+        long token = current != null ? current : 0L;
+        if (since == null || since <= 0 || since > token || since < syncChangeRepository.findHorizon(userId)) {
+            return new SyncResponse(Long.toString(token), true, todoRepository.findByUserId(userId),
+                                    folderRepository.findByUserId(userId), List.of(), List.of());
+        }
+
+        List<Long> changedTodoIds = new ArrayList<>();
+        List<Long> changedFolderIds = new ArrayList<>();
+        List<Long> deletedTodoIds = new ArrayList<>();
+        List<Long> deletedFolderIds = new ArrayList<>();
+        for (SyncChangeRepository.Change change : syncChangeRepository.findSince(userId, since)) {
+            boolean todo = change.entity() == ChangeEvent.Entity.TODO;
+            if (change.deleted()) {
+                (todo ? deletedTodoIds : deletedFolderIds).add(change.entityId());
+            } else {
+                (todo ? changedTodoIds : changedFolderIds).add(change.entityId());
+            }
+        }
+        List<Todo> todos = changedTodoIds.isEmpty() ? List.of() : todoRepository.findAllById(changedTodoIds);
+        List<Folder> folders = changedFolderIds.isEmpty() ? List.of() : folderRepository.findAllById(changedFolderIds);
+        return new SyncResponse(Long.toString(token), false, todos, folders, deletedTodoIds, deletedFolderIds);
+    }
+}
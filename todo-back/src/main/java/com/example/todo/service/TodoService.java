@@ -1,17 +1,66 @@
 package com.example.todo.service;
 
+import com.example.todo.cache.UserListCache;
+import com.example.todo.dto.CalendarEntry;
+import com.example.todo.dto.TodoCalendar;
+import com.example.todo.dto.TodoCursor;
+import com.example.todo.dto.TodoFeatures;
+import com.example.todo.dto.TodoOwner;
+import com.example.todo.dto.TodoPage;
+import com.example.todo.dto.TodoRequest;
+import com.example.todo.dto.TodoStats;
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Folder;
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
 import com.example.todo.entity.Todo;
+import com.example.todo.event.ChangeEvent;
 import com.example.todo.repository.TodoRepository;
+import com.example.todo.util.DateTimeUtil;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+// 公開メソッドごとの処理時間（todo.service{class, method}）
+@Timed(value = "todo.service", histogram = true)
 @Service
 public class TodoService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    // V7 の全文索引の ngram_token_size（MySQL の既定値）
+    private static final int NGRAM_TOKEN_SIZE = 2;
+    private static final Duration MAX_RANGE = Duration.ofDays(92);
+
     private final TodoRepository todoRepository;
+    private final EntityManager entityManager;
+    private final UserListCache listCache;
+    private final CompletionTimePredictor predictor;
+    private final ApplicationEventPublisher events;
     
-    public TodoService(TodoRepository todoRepository) {
+    public TodoService(TodoRepository todoRepository, EntityManager entityManager, UserListCache listCache,
+                       CompletionTimePredictor predictor, ApplicationEventPublisher events) {
         this.todoRepository = todoRepository;
+        this.entityManager = entityManager;
+        this.listCache = listCache;
+        this.predictor = predictor;
+        this.events = events;
     }
     
     // 指定されたユーザーの全タスク取得
@@ -19,90 +68,337 @@ public class TodoService {
         return todoRepository.findAll();
     }
     
-    // 指定ユーザーのタスクをすべて取得
-    public List<Todo> getTodosByUserId(Long userId) {
-        return todoRepository.findByUserId(userId);
+    // 指定ユーザーのタスクをすべて取得（一覧は読み取り専用ビューで返す）
+    public List<TodoView> getTodosByUserId(Long userId) {
+        return listCache.get(userId, null, UserListCache.View.ALL,
+            () -> rememberOwners(todoRepository.findViewsByUserId(userId)));
     }
     
     // ユーザーID とフォルダID によるタスク取得
-    public List<Todo> getTodosByUserIdAndFolderId(Long userId, Long folderId) {
-        return todoRepository.findByUserIdAndFolderId(userId, folderId);
+    public List<TodoView> getTodosByUserIdAndFolderId(Long userId, Long folderId) {
+        return listCache.get(userId, folderId, UserListCache.View.FOLDER,
+            () -> rememberOwners(todoRepository.findViewsByUserIdAndFolderId(userId, folderId)));
     }
     
     // ユーザーID で、かつフォルダに属していないタスク取得（「All」項目用）
-    public List<Todo> getUnassignedTodosByUserId(Long userId) {
-        return todoRepository.findByUserIdAndFolderIsNull(userId);
+    public List<TodoView> getUnassignedTodosByUserId(Long userId) {
+        return listCache.get(userId, null, UserListCache.View.UNASSIGNED,
+            () -> rememberOwners(todoRepository.findViewsByUserIdAndFolderIsNull(userId)));
+    }
+
+    // ダッシュボード統計。GROUP BY 1文で集計し、次の変更まで一覧と同じキャッシュに保持する
+    public TodoStats getStats(Long userId) {
+        return listCache.get(userId, null, UserListCache.View.STATS,
+            () -> List.of(TodoStats.of(todoRepository.aggregateByUserId(userId)))).get(0);
+    }
+
+    // 期間 [from, to) と重なるタスクを日ごとにまとめて返す（endTime がなければ startTime の時点で判定）。
+    // 最長の所要時間と2つの範囲の読み込みは同じ読み取り専用トランザクション（同じスナップショット・同じレプリカ）で行う
+    @Transactional(readOnly = true)
+    public TodoCalendar getTodosInRange(Long userId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from) || Duration.between(from, to).compareTo(MAX_RANGE) > 0) {
+            throw new IllegalArgumentException("Range must be positive and at most " + MAX_RANGE.toDays() + " days");
+        }
+        // 2つの条件は互いに重ならないため、結果を連結するだけでよい。
+        // from をまたぐタスクは最長の所要時間（予定の終了時刻まで）より前には開始していないため、その分だけ遡って探す
+        List<CalendarEntry> entries = new ArrayList<>();
+        Integer maxSpan = todoRepository.findMaxSpanMinutesByUserId(userId);
+        if (maxSpan != null && maxSpan >= 0) {
+            // 分数は切り捨てのため 1 分余分に遡る
+            entries.addAll(todoRepository.findCalendarSpanning(userId, from.minusMinutes(maxSpan + 1L), from));
+        }
+        entries.addAll(todoRepository.findCalendarStartingBetween(userId, from, to));
+        entries.sort(Comparator.comparing(CalendarEntry::getStartTime).thenComparing(CalendarEntry::getId));
+        return TodoCalendar.of(from, to, entries);
+    }
+
+    // (createdAt, id) のキーセットカーソルでページ単位に取得
+    @Transactional(readOnly = true)
+    public TodoPage getTodoPage(Long userId, Long folderId, boolean all, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TodoCursor after = cursor != null ? TodoCursor.decode(cursor) : null;
+        java.time.LocalDateTime createdAt = after != null ? after.getCreatedAt() : null;
+        Long id = after != null ? after.getId() : null;
+        // 1件多く取得して次ページの有無を判定する
+        Limit fetch = Limit.of(size + 1);
+
+        List<TodoView> rows;
+        if (all) {
+            rows = after == null ? todoRepository.findPageByUserId(userId, fetch)
+                : todoRepository.findPageByUserIdAfter(userId, createdAt, id, fetch);
+        } else if (folderId != null) {
+            rows = after == null ? todoRepository.findPageByUserIdAndFolderId(userId, folderId, fetch)
+                : todoRepository.findPageByUserIdAndFolderIdAfter(userId, folderId, createdAt, id, fetch);
+        } else {
+            rows = after == null ? todoRepository.findPageByUserIdAndFolderIsNull(userId, fetch)
+                : todoRepository.findPageByUserIdAndFolderIsNullAfter(userId, createdAt, id, fetch);
+        }
+
+        return toPage(rows, size);
+    }
+
+    // タイトル・コンテキストの全文検索。空白区切りの各語をすべて含む（部分一致）タスクを返す。
+    // 全文索引はユーザーで絞り込めないため、MATCH は全ユーザーの行を対象に評価してから user_id で絞り込む。
+    // 多くの行に現れる語（特に1文字の語）ほど遅くなる
+    @Transactional(readOnly = true)
+    public TodoPage searchTodos(Long userId, String q, Long folderId, Boolean completed, String cursor, int limit) {
+        String query = toBooleanQuery(q);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TodoCursor after = cursor != null ? TodoCursor.decode(cursor) : null;
+        List<TodoView> rows = search(userId, query, folderId, completed,
+            after != null ? after.getCreatedAt() : null, after != null ? after.getId() : null, size + 1);
+        return toPage(rows, size);
+    }
+
+    // 読み込んだ行の完了状態を adjust で差し替えてから completed で絞り込む（書き込み遅延の未反映分を重ねる場合）。
+    // DB では絞り込まないため、1ページ分がそろうか行がなくなるまで読み進める
+    @Transactional(readOnly = true)
+    public TodoPage searchTodos(Long userId, String q, Long folderId, boolean completed, String cursor, int limit,
+                                UnaryOperator<List<TodoView>> adjust) {
+        String query = toBooleanQuery(q);
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TodoCursor after = cursor != null ? TodoCursor.decode(cursor) : null;
+        LocalDateTime createdAt = after != null ? after.getCreatedAt() : null;
+        Long id = after != null ? after.getId() : null;
+        List<TodoView> rows = new ArrayList<>();
+        while (true) {
+            List<TodoView> chunk = adjust.apply(search(userId, query, folderId, null, createdAt, id, size + 1));
+            for (TodoView row : chunk) {
+                if (row.isCompleted() == completed && rows.size() <= size) {
+                    rows.add(row);
+                }
+            }
+            if (rows.size() > size || chunk.size() <= size) {
+                break;
+            }
+            TodoView last = chunk.get(chunk.size() - 1);
+            createdAt = last.getCreatedAt();
+            id = last.getId();
+        }
+        return toPage(rows, size);
+    }
+
+    // size + 1 件取得した結果から、次ページのカーソルを付けたページを作る
+    private static TodoPage toPage(List<TodoView> rows, int size) {
+        if (rows.size() <= size) {
+            return new TodoPage(rows, null);
+        }
+        List<TodoView> items = rows.subList(0, size);
+        TodoView last = items.get(size - 1);
+        return new TodoPage(items, new TodoCursor(last.getCreatedAt(), last.getId()).encode());
+    }
+
+    // createdAt が null なら最初のページ、そうでなければ (createdAt, id) より後ろのページを検索する
+    private List<TodoView> search(Long userId, String query, Long folderId, Boolean completed,
+                                  LocalDateTime createdAt, Long id, int limit) {
+        List<Todo> todos = createdAt == null
+            ? todoRepository.search(userId, query, folderId, completed, limit)
+            : todoRepository.searchAfter(userId, query, folderId, completed, createdAt, id, limit);
+        return todos.stream().map(TodoView::from).toList();
+    }
+
+    // 利用者の入力から演算子を取り除き、各語を必須にした BOOLEAN MODE の式にする。
+    // ngram パーサーでは NGRAM_TOKEN_SIZE 文字以上の語は ngram の並び（フレーズ）として部分一致で探され、"*" は無視される。
+    // それより短い語は "*" を付けた場合だけ、その文字で始まる ngram を含む行に一致する（付けないと何にも一致しない）
+    private static String toBooleanQuery(String q) {
+        StringBuilder query = new StringBuilder();
+        if (q != null) {
+            // 演算子は空白に置き換えて語を区切る（"e-mail" は "+e* +mail"。語の中で文字を詰めると別の語になる）
+            for (String word : q.replaceAll("[+\\-<>()~*\"@]", " ").trim().split("\\s+")) {
+                if (!word.isEmpty()) {
+                    query.append(query.length() > 0 ? " " : "").append('+').append(word);
+                    if (word.codePointCount(0, word.length()) < NGRAM_TOKEN_SIZE) {
+                        query.append('*');
+                    }
+                }
+            }
+        }
+        if (query.length() == 0) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        return query.toString();
+    }
+
+    // 前方専用カーソルで1行ずつ consumer に渡す。ビューは永続化コンテキストに載らないため、件数に関わらずヒープは一定
+    @Transactional(readOnly = true)
+    public void streamTodos(Long userId, Long folderId, boolean all, Consumer<TodoView> consumer) {
+        Stream<TodoView> stream;
+        if (all) {
+            stream = todoRepository.streamByUserId(userId);
+        } else if (folderId != null) {
+            stream = todoRepository.streamByUserIdAndFolderId(userId, folderId);
+        } else {
+            stream = todoRepository.streamByUserIdAndFolderIsNull(userId);
+        }
+        try (Stream<TodoView> rows = stream) {
+            rows.forEach(consumer);
+        }
     }
     
     
-    public Todo createTodo(String title, Long userId, String taskType, String priority, 
-                           java.time.LocalDateTime startTime, String frequency, String context) {
-        //ダミー実装
-        Integer predictedTime = predictCompletionTime(title, taskType, priority, startTime, frequency, context);
+    // フォルダは SELECT せずに参照のみ設定し、INSERT 1文で作成する
+    public Todo createTodo(String title, Long userId, TaskType taskType, Priority priority, 
+                           java.time.LocalDateTime startTime, Frequency frequency, String context, Long folderId) {
+        Integer predictedTime = predictor.predict(userId, title, taskType, priority, startTime, frequency, context);
         Todo todo = new Todo(title, userId, taskType, priority, startTime, frequency, context);
         todo.setPredictedCompletionTime(predictedTime);
-        return todoRepository.save(todo);
+        if (folderId != null) {
+            todo.setFolder(entityManager.getReference(Folder.class, folderId));
+        }
+        Todo saved = todoRepository.save(todo);
+        listCache.rememberOwner(Todo.class, saved.getId(), userId);
+        listCache.invalidate(userId);
+        events.publishEvent(ChangeEvent.todosCreated(userId, List.of(schedule(saved))));
+        return saved;
     }
     
-    private Integer predictCompletionTime(String title, String taskType, String priority, 
-                                          java.time.LocalDateTime startTime, String frequency, String context) {
-        int baseTime = title.length() * 2;
-        if ("coding".equalsIgnoreCase(taskType)) {
-            baseTime += 20;
-        } else if ("study".equalsIgnoreCase(taskType)) {
-            baseTime += 15;
-        } else if ("shopping".equalsIgnoreCase(taskType)) {
-            baseTime += 10;
-        } else if ("exercise".equalsIgnoreCase(taskType)) {
-            baseTime += 5;
-        }
-        if ("high".equalsIgnoreCase(priority)) {
-            baseTime += 15;
-        } else if ("medium".equalsIgnoreCase(priority)) {
-            baseTime += 10;
-        } else if ("low".equalsIgnoreCase(priority)) {
-            baseTime += 5;
-        }
-        if ("daily".equalsIgnoreCase(frequency)) {
-            baseTime -= 5;
-        } else if ("weekly".equalsIgnoreCase(frequency)) {
-            baseTime += 5;
-        }
-        if ("office".equalsIgnoreCase(context)) {
-            baseTime -= 5;
-        } else if ("home".equalsIgnoreCase(context)) {
-            baseTime += 5;
-        }
-        if (startTime != null) {
-            int hour = startTime.getHour();
-            if (hour < 8) {
-                baseTime += 10;
-            }
-            if (hour >= 19) {
-                baseTime += 5;
+    // 一括作成。ID はプール型シーケンスから払い出されるため、INSERT は JDBC バッチでまとめて送信される
+    @Transactional
+    public List<Todo> createTodos(List<TodoRequest> requests) {
+        List<Todo> todos = new ArrayList<>(requests.size());
+        for (TodoRequest request : requests) {
+            java.time.LocalDateTime startTime = DateTimeUtil.parseStartTime(request.getStartTime());
+            Todo todo = new Todo(request.getTitle(), request.getUserId(), request.getTaskType(), request.getPriority(),
+                                 startTime, request.getFrequency(), request.getContext());
+            todo.setPredictedCompletionTime(predictor.predict(request.getUserId(), request.getTitle(), request.getTaskType(),
+                request.getPriority(), startTime, request.getFrequency(), request.getContext()));
+            if (request.getFolderId() != null) {
+                // フォルダは SELECT せずに参照のみ設定する
+                todo.setFolder(entityManager.getReference(Folder.class, request.getFolderId()));
             }
+            todos.add(todo);
+            listCache.invalidate(request.getUserId());
+        }
+        List<Todo> saved = todoRepository.saveAll(todos);
+        saved.forEach(todo -> listCache.rememberOwner(Todo.class, todo.getId(), todo.getUserId()));
+        saved.stream()
+            .collect(Collectors.groupingBy(Todo::getUserId, Collectors.mapping(TodoService::schedule, Collectors.toList())))
+            .forEach((userId, schedules) -> events.publishEvent(ChangeEvent.todosCreated(userId, schedules)));
+        return saved;
+    }
+
+    private static ChangeEvent.Schedule schedule(Todo todo) {
+        return new ChangeEvent.Schedule(todo.getId(), todo.getFrequency(), todo.getStartTime());
+    }
+
+    @Transactional
+    public int updateCompletion(List<Long> ids, boolean completed) {
+        return applyCompletion(todoRepository.findFeaturesByIdIn(ids), completed);
+    }
+
+    @Transactional
+    public int moveTodos(List<Long> ids, Long folderId) {
+        invalidateOwners(ids, ChangeEvent.Action.UPDATED);
+        if (folderId == null) {
+            return todoRepository.clearFolderByIdIn(ids);
         }
-        return baseTime;
+        return todoRepository.updateFolderByIdIn(ids, entityManager.getReference(Folder.class, folderId));
+    }
+
+    @Transactional
+    public int deleteTodos(List<Long> ids) {
+        invalidateOwners(ids, ChangeEvent.Action.DELETED);
+        return todoRepository.deleteByIdIn(ids);
+    }
+
+    // 対象行の所有ユーザーごとに一覧を破棄し、変更イベントを発行する
+    private void invalidateOwners(List<Long> ids, ChangeEvent.Action action) {
+        Map<Long, List<Long>> idsByUser = todoRepository.findOwnersByIdIn(ids).stream()
+            .collect(Collectors.groupingBy(TodoOwner::getUserId,
+                Collectors.mapping(TodoOwner::getId, Collectors.toList())));
+        idsByUser.forEach((userId, owned) -> {
+            listCache.invalidate(userId);
+            events.publishEvent(ChangeEvent.todo(userId, action, owned));
+        });
+    }
+
+    private List<TodoView> rememberOwners(List<TodoView> todos) {
+        todos.forEach(todo -> listCache.rememberOwner(Todo.class, todo.getId(), todo.getUserId()));
+        return todos;
     }
     
-    public Todo updateTodo(Long id, String newText) {
+    // 予測時間の再計算に必要なため行を読み込み、更新はタイトルと予測時間だけの UPDATE にする
+    @Transactional
+    public int updateTodo(Long id, String newText) {
         Todo todo = todoRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Todo not found with id: " + id));
-        todo.setTitle(newText);
-        todo.setPredictedCompletionTime(predictCompletionTime(newText, todo.getTaskType(), 
-            todo.getPriority(), todo.getStartTime(), todo.getFrequency(), todo.getContext()));
-        return todoRepository.save(todo);
+        Integer predicted = predictor.predict(todo.getUserId(), newText, todo.getTaskType(), 
+            todo.getPriority(), todo.getStartTime(), todo.getFrequency(), todo.getContext());
+        int updated = todoRepository.updateTitleById(id, newText, predicted);
+        listCache.rememberOwner(Todo.class, id, todo.getUserId());
+        listCache.invalidate(todo.getUserId());
+        events.publishEvent(ChangeEvent.todo(todo.getUserId(), ChangeEvent.Action.UPDATED, List.of(id)));
+        return updated;
     }
     
-    public void deleteTodo(Long id) {
-        todoRepository.deleteById(id);
+    @Transactional
+    public int deleteTodo(Long id) {
+        // 削除後は所有者を引けなくなるため先に破棄する（コミット後にも再度破棄される）
+        Long userId = listCache.invalidateOwner(Todo.class, id, () -> todoRepository.findUserIdById(id));
+        int deleted = todoRepository.deleteRowById(id);
+        listCache.forgetOwner(Todo.class, id);
+        if (deleted > 0 && userId != null) {
+            events.publishEvent(ChangeEvent.todo(userId, ChangeEvent.Action.DELETED, List.of(id)));
+        }
+        return deleted;
     }
     
-    public Todo updateCompletion(Long id, boolean completed) {
-        Todo todo = todoRepository.findById(id)
-            .orElseThrow(() -> new RuntimeException("Todo not found with id: " + id));
-        todo.setCompleted(completed);
-        return todoRepository.save(todo);
+    @Transactional
+    public int updateCompletion(Long id, boolean completed) {
+        List<TodoFeatures> rows = todoRepository.findFeaturesByIdIn(List.of(id));
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Todo not found with id: " + id);
+        }
+        return applyCompletion(rows, completed);
+    }
+
+    // 完了状態を UPDATE 1文で変更し、状態が変わった行の実績をコミット後に予測モデルへ反映する
+    private int applyCompletion(List<TodoFeatures> rows, boolean completed) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        // DATETIME(6) と同じ精度に揃え、DB 側の TIMESTAMPDIFF と同じ分数を計算する
+        java.time.LocalDateTime now = java.time.LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Long> ids = rows.stream().map(TodoFeatures::getId).toList();
+        List<TodoFeatures> changing = rows.stream().filter(row -> row.isCompleted() != completed).toList();
+        int updated = todoRepository.updateCompletionByIdIn(ids, completed, now);
+
+        rows.forEach(row -> listCache.rememberOwner(Todo.class, row.getId(), row.getUserId()));
+        rows.stream()
+            .collect(Collectors.groupingBy(TodoFeatures::getUserId,
+                Collectors.mapping(TodoFeatures::getId, Collectors.toList())))
+            .forEach((userId, owned) -> {
+                listCache.invalidate(userId);
+                events.publishEvent(ChangeEvent.todo(userId, ChangeEvent.Action.UPDATED, owned));
+            });
+
+        // 並行して同じ行が更新された場合は二重に学習しないよう、反映をすべて見送る
+        if (updated == changing.size()) {
+            afterCommit(() -> changing.forEach(row -> {
+                if (completed) {
+                    Integer actual = CompletionTimePredictor.actualMinutes(row.getStartTime(), now);
+                    if (actual != null) {
+                        predictor.learn(row, actual, 1);
+                    }
+                } else if (row.getActualCompletionTime() != null) {
+                    predictor.learn(row, row.getActualCompletionTime(), -1);
+                }
+            }));
+        }
+        return updated;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
 }
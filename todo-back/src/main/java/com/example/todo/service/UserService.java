@@ -2,42 +2,66 @@ package com.example.todo.service;
 
 import com.example.todo.entity.User;
 import com.example.todo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
+// 公開メソッドごとの処理時間（todo.service{class, method}）
+@Timed(value = "todo.service", histogram = true)
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final TaskExecutor taskExecutor;
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
     
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashingService,
+                       @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.taskExecutor = taskExecutor;
     }
     
-    public User register(String username, String password) {
+    // パスワードのハッシュ化は専用スレッドプールで行い、リクエストスレッドを占有しない。
+    // ハッシュ化後の DB アクセスは BCrypt のプールを塞がないよう applicationTaskExecutor で続ける
+    public CompletableFuture<User> register(String username, String password) {
         if(userRepository.findByUsername(username) != null) {
             logger.warn("Attempted registration with existing username: {}", username);
             throw new RuntimeException("Username already exists");
         }
         // パスワードのハッシュ化
-        String hashedPassword = passwordEncoder.encode(password);
-        User user = new User(username, hashedPassword);
-        logger.info("Registering user: {}", username);
-        return userRepository.save(user);
+        return passwordHashingService.encode(password).thenApplyAsync(hashedPassword -> {
+            User user = new User(username, hashedPassword);
+            logger.info("Registering user: {}", username);
+            return userRepository.save(user);
+        }, taskExecutor);
     }
     
-    public User login(String username, String password) {
+    public CompletableFuture<User> login(String username, String password) {
         User user = userRepository.findByUsername(username);
-        if (user == null || !passwordEncoder.matches(password, user.getPassword())) {
+        if (user == null) {
             logger.warn("Invalid login attempt for username: {}", username);
             throw new RuntimeException("Invalid credentials");
         }
-        logger.info("User logged in: {}", username);
-        return user;
+        return passwordHashingService.verify(password, user.getPassword()).thenApplyAsync(verification -> {
+            if (!verification.matched()) {
+                logger.warn("Invalid login attempt for username: {}", username);
+                throw new RuntimeException("Invalid credentials");
+            }
+            // BCrypt のコストが変更されていれば新しいコストで保存し直す
+            if (verification.upgradedHash() != null) {
+                user.setPassword(verification.upgradedHash());
+                userRepository.save(user);
+                logger.info("Rehashed password for user: {}", username);
+            }
+            logger.info("User logged in: {}", username);
+            return user;
+        }, taskExecutor);
     }
 }
@@ -0,0 +1,26 @@
+package com.example.todo.util;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+
+public final class DateTimeUtil {
+
+    // "yyyy-MM-dd'T'HH:mm" 形式でパースするフォーマッター（スレッドセーフなので共有する）
+    private static final DateTimeFormatter START_TIME_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd'T'HH:mm")  // 分までは必須
+            .optionalStart()
+            .appendPattern(":ss")                 // 秒はオプション
+            .optionalEnd()
+            .toFormatter();
+
+    private DateTimeUtil() { }
+
+    public static LocalDateTime parseStartTime(String value) {
+        try {
+            return LocalDateTime.parse(value, START_TIME_FORMATTER);
+        } catch (Exception ex) {
+            throw new RuntimeException("Invalid startTime format: " + value, ex);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.todo.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ハッシュ化タイミングホイール。
+ *
+ * 期限を tick 単位に丸め、(期限 tick % wheelSize) のバケットに入れる。1周より先の期限は残り周回数を持たせる。
+ * ワーカースレッドは tick ごとに1バケットだけを処理するため、登録・取り消しは O(1)、
+ * tick あたりの処理量はバケット内の件数（総数 / wheelSize）に比例する。
+ * 期限の精度は tick 単位で、実行は executor に委ねる（ワーカーを止めないため）。
+ */
+public class HashedWheelTimer implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    public static final class Timeout {
+        private final long deadlineTick;
+        private final Runnable task;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        // 取り消されたエントリは次にバケットを処理したときに取り除かれる
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int mask;
+    private final LinkedList<Timeout>[] wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final Executor executor;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean running = new AtomicBoolean(true);
+    private final Thread worker;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(Duration tickDuration, int wheelSize, Executor executor) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = wheelSize - 1;
+        this.wheel = new LinkedList[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new LinkedList<>();
+        }
+        this.executor = executor;
+        this.worker = new Thread(this::run, "wheel-timer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // delay 後に task を実行する。登録はキューに積むだけで、ワーカーが次の tick でバケットに振り分ける
+    public Timeout schedule(Runnable task, Duration delay) {
+        long delayNanos = Math.max(0, delay.toNanos());
+        long deadlineTick = (System.nanoTime() - startNanos + delayNanos + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(deadlineTick, task);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    private void run() {
+        while (running.get()) {
+            long nextTickNanos = startNanos + (tick + 1) * tickNanos;
+            long sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                continue;
+            }
+            tick++;
+            transferPending();
+            expire(wheel[(int) (tick & mask)]);
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+            // 既に過ぎた期限は現在の tick で実行する
+            long target = Math.max(timeout.deadlineTick, tick);
+            timeout.remainingRounds = (target - tick) / wheel.length;
+            wheel[(int) (target & mask)].add(timeout);
+        }
+    }
+
+    private void expire(LinkedList<Timeout> bucket) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.cancelled) {
+                it.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                it.remove();
+                try {
+                    executor.execute(timeout.task);
+                } catch (RuntimeException ex) {
+                    logger.warn("Failed to dispatch timer task", ex);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running.set(false);
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.todo.util;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 全ノードで共有する JWT 署名鍵のキーリング。
+ *
+ * 鍵は設定値 (todo.jwt.keys)、鍵ファイル (todo.jwt.keys-file) または PKCS12 キーストアの秘密鍵エントリ
+ * (エイリアスが kid) から読み込み、定期的に再読み込みする。設定値 (todo.jwt.keys / active-kid) は起動時の値のまま
+ * 変わらないため、再起動せずに鍵を入れ替えるには鍵ファイルかキーストアを書き換える。新しい鍵は読み込んだ時点で検証に使えるが、
+ * 全ノードが鍵を取り込む前に署名しないよう、署名に使うのは次の鍵に限る。
+ * <ul>
+ *   <li>active-kid で指定された鍵</li>
+ *   <li>not-before を指定した設定鍵 (kid:base64secret:notBeforeEpochSeconds) で、その時刻を過ぎたもの</li>
+ *   <li>キーストアの鍵で、作成から activation-delay を過ぎたもの</li>
+ * </ul>
+ * 該当がなければ not-before のない設定鍵のうち先頭のもの（なければ最も早く有効になる鍵）を使う。
+ * not-before のない設定鍵は自動では昇格しないため、末尾に鍵を追加してローリング再起動しても署名鍵は変わらない。
+ * ソースから削除された鍵は grace の間だけ検証用に保持する。
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    public record SigningKey(String kid, SecretKey key) { }
+
+    // activatesAt が null の鍵は自動では署名に使わない
+    private record LoadedKey(SecretKey key, Instant activatesAt) { }
+
+    private final Supplier<String> configuredKeys;
+    private final Supplier<String> activeKid;
+    private final String keysFile;
+    private final String keystorePath;
+    private final char[] keystorePassword;
+    private final Duration activationDelay;
+    private final Duration grace;
+    private final Clock clock;
+
+    private volatile Map<String, SecretKey> verificationKeys = Map.of();
+    private volatile SigningKey signingKey;
+    private final Map<String, Instant> removedAt = new HashMap<>();
+
+    // todo.jwt.keys / active-kid は起動時に注入した値を使い続ける（再読み込みで変わるのは鍵ファイルとキーストアだけ）
+    @Autowired
+    public JwtKeyRing(@Value("${todo.jwt.keys:}") String configuredKeys,
+                      @Value("${todo.jwt.active-kid:}") String activeKid,
+                      @Value("${todo.jwt.keys-file:}") String keysFile,
+                      @Value("${todo.jwt.keystore.path:}") String keystorePath,
+                      @Value("${todo.jwt.keystore.password:}") String keystorePassword,
+                      @Value("${todo.jwt.rotation.activation-delay:PT2M}") Duration activationDelay,
+                      @Value("${todo.jwt.rotation.grace:P1D}") Duration grace) {
+        this(() -> configuredKeys, () -> activeKid, keysFile, keystorePath, keystorePassword,
+             activationDelay, grace, Clock.systemUTC());
+    }
+
+    // 設定値の変化を与えられるよう Supplier で受け取る（テスト・ベンチマーク用）
+    public JwtKeyRing(Supplier<String> configuredKeys, Supplier<String> activeKid, String keysFile,
+                      String keystorePath, String keystorePassword,
+                      Duration activationDelay, Duration grace, Clock clock) {
+        this.configuredKeys = configuredKeys;
+        this.activeKid = activeKid;
+        this.keysFile = keysFile;
+        this.keystorePath = keystorePath;
+        this.keystorePassword = keystorePassword.toCharArray();
+        this.activationDelay = activationDelay;
+        this.grace = grace;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+        if (signingKey == null) {
+            // 鍵が設定されていない場合はノード固有の鍵を生成する（開発用。他ノードや再起動後には検証できない）
+            logger.warn("No JWT keys configured; generating a node-local signing key");
+            SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+            this.verificationKeys = Map.of("local", key);
+            this.signingKey = new SigningKey("local", key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${todo.jwt.rotation.refresh-interval:PT1M}",
+               initialDelayString = "${todo.jwt.rotation.refresh-interval:PT1M}")
+    public synchronized void refresh() {
+        Map<String, LoadedKey> loaded;
+        try {
+            loaded = load();
+        } catch (Exception ex) {
+            logger.error("Failed to load JWT keys; keeping the current key ring", ex);
+            return;
+        }
+        if (loaded.isEmpty()) {
+            return;
+        }
+
+        Instant now = clock.instant();
+        Map<String, SecretKey> next = new HashMap<>();
+        loaded.forEach((kid, key) -> next.put(kid, key.key()));
+        removedAt.keySet().removeAll(loaded.keySet());
+        for (Map.Entry<String, SecretKey> current : verificationKeys.entrySet()) {
+            String kid = current.getKey();
+            if (loaded.containsKey(kid)) {
+                continue;
+            }
+            Instant removed = removedAt.computeIfAbsent(kid, k -> now);
+            if (removed.plus(grace).isAfter(now)) {
+                next.put(kid, current.getValue());
+            } else {
+                removedAt.remove(kid);
+                logger.info("JWT key {} left its grace window and is no longer trusted", kid);
+            }
+        }
+
+        String kid = selectSigningKid(loaded, now);
+        this.verificationKeys = Map.copyOf(next);
+        if (signingKey == null || !signingKey.kid().equals(kid)) {
+            logger.info("JWT signing key is now {}", kid);
+        }
+        this.signingKey = new SigningKey(kid, loaded.get(kid).key());
+    }
+
+    public SigningKey signingKey() {
+        return signingKey;
+    }
+
+    // kid に対応する検証鍵を返す（O(1)）
+    public SecretKey verificationKey(String kid) {
+        SecretKey key = kid != null ? verificationKeys.get(kid) : null;
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+
+    public boolean isTrusted(String kid) {
+        return kid != null && verificationKeys.containsKey(kid);
+    }
+
+    private String selectSigningKid(Map<String, LoadedKey> loaded, Instant now) {
+        String active = activeKid.get();
+        if (StringUtils.hasText(active) && loaded.containsKey(active.trim())) {
+            return active.trim();
+        }
+        // 有効化済みの鍵のうち最も新しいもの。なければ not-before のない先頭の鍵、最後に最も早く有効になる鍵
+        String newest = null;
+        Instant newestActivatesAt = null;
+        String firstManual = null;
+        String earliest = null;
+        Instant earliestActivatesAt = null;
+        for (Map.Entry<String, LoadedKey> entry : loaded.entrySet()) {
+            Instant activatesAt = entry.getValue().activatesAt();
+            if (activatesAt == null) {
+                if (firstManual == null) {
+                    firstManual = entry.getKey();
+                }
+                continue;
+            }
+            if (!activatesAt.isAfter(now) && (newestActivatesAt == null || !activatesAt.isBefore(newestActivatesAt))) {
+                newest = entry.getKey();
+                newestActivatesAt = activatesAt;
+            }
+            if (earliestActivatesAt == null || activatesAt.isBefore(earliestActivatesAt)) {
+                earliest = entry.getKey();
+                earliestActivatesAt = activatesAt;
+            }
+        }
+        if (newest != null) {
+            return newest;
+        }
+        return firstManual != null ? firstManual : earliest;
+    }
+
+    private Map<String, LoadedKey> load() throws Exception {
+        Map<String, LoadedKey> keys = new LinkedHashMap<>();
+        for (String entry : StringUtils.commaDelimitedListToStringArray(configuredKeys.get())) {
+            putConfiguredKey(keys, entry);
+        }
+        if (StringUtils.hasText(keysFile)) {
+            // 1 行 1 鍵。# 以降はコメント
+            for (String line : Files.readAllLines(Path.of(keysFile))) {
+                int comment = line.indexOf('#');
+                putConfiguredKey(keys, comment >= 0 ? line.substring(0, comment) : line);
+            }
+        }
+        if (StringUtils.hasText(keystorePath)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            try (InputStream in = Files.newInputStream(Path.of(keystorePath))) {
+                keyStore.load(in, keystorePassword);
+            }
+            KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(keystorePassword);
+            Enumeration<String> aliases = keyStore.aliases();
+            for (String alias : Collections.list(aliases)) {
+                if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                    KeyStore.SecretKeyEntry entry = (KeyStore.SecretKeyEntry) keyStore.getEntry(alias, protection);
+                    SecretKey key = Keys.hmacShaKeyFor(entry.getSecretKey().getEncoded());
+                    Instant createdAt = keyStore.getCreationDate(alias).toInstant();
+                    keys.put(alias, new LoadedKey(key, createdAt.plus(activationDelay)));
+                }
+            }
+        }
+        return keys;
+    }
+
+    // kid:base64secret[:notBeforeEpochSeconds]
+    private static void putConfiguredKey(Map<String, LoadedKey> keys, String entry) {
+        if (!StringUtils.hasText(entry)) {
+            return;
+        }
+        String[] parts = entry.trim().split(":");
+        if (parts.length < 2 || parts.length > 3 || parts[0].isBlank()) {
+            throw new IllegalArgumentException("JWT key must be in kid:base64secret[:notBeforeEpochSeconds] form");
+        }
+        byte[] secret = Base64.getDecoder().decode(parts[1].trim());
+        Instant notBefore = parts.length == 3 ? Instant.ofEpochSecond(Long.parseLong(parts[2].trim())) : null;
+        keys.put(parts[0].trim(), new LoadedKey(Keys.hmacShaKeyFor(secret), notBefore));
+    }
+}
@@ -1,44 +1,133 @@
 package com.example.todo.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
-    private Key key;
+    private final JwtKeyRing keyRing;
+    private JwtParser parser;
     private final long expirationInMs = 86400000L; // 24 hours
 
+    // 検証済みトークンのキャッシュ（キーはトークンの SHA-256 ダイジェスト先頭128bit）
+    private final Cache<TokenDigest, VerifiedToken> verifiedTokens;
+    private final Counter cacheHits;
+    private final Counter rejectedTokens;
+    private final Timer verifyTimer;
+
+    private record TokenDigest(long high, long low) { }
+
+    private record VerifiedToken(Claims claims, String kid) { }
+
+    public JwtUtil(JwtKeyRing keyRing,
+                   @Value("${todo.jwt.cache.maximum-size:10000}") long cacheMaximumSize,
+                   MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<TokenDigest, VerifiedToken>() {
+                    // トークンの exp までキャッシュする
+                    @Override
+                    public long expireAfterCreate(TokenDigest digest, VerifiedToken token, long currentTime) {
+                        Date expiration = token.claims().getExpiration();
+                        if (expiration == null) {
+                            return 0;
+                        }
+                        long remainingMs = expiration.getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest digest, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.cacheHits = Counter.builder("todo.jwt.cache.hits").register(meterRegistry);
+        this.rejectedTokens = Counter.builder("todo.jwt.rejected").register(meterRegistry);
+        this.verifyTimer = Timer.builder("todo.jwt.verify").register(meterRegistry);
+    }
+
     @PostConstruct
     public void init() {
-        // 実際は環境変数などから秘密鍵を取得することを推奨
-        this.key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+        // パーサーはスレッドセーフなので1つを使い回す。検証鍵はヘッダーの kid でキーリングから引く
+        this.parser = Jwts.parserBuilder()
+                          .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                              @Override
+                              public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                                  return keyRing.verificationKey(header.getKeyId());
+                              }
+                          })
+                          .build();
     }
 
     public String generateToken(String username, Long userId) {
+        JwtKeyRing.SigningKey signingKey = keyRing.signingKey();
         return Jwts.builder()
+                   .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                    .setSubject(username)
                    .claim("userId", userId)
                    .setIssuedAt(new Date())
                    .setExpiration(new Date(System.currentTimeMillis() + expirationInMs))
-                   .signWith(key)
+                   .signWith(signingKey.key())
                    .compact();
     }
 
     public Claims validateToken(String token) {
+        TokenDigest digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        // キャッシュ済みでも、署名鍵がキーリングから外れていれば再検証する
+        if (cached != null && !isExpired(cached.claims()) && keyRing.isTrusted(cached.kid())) {
+            cacheHits.increment();
+            return cached.claims();
+        }
+
+        long start = System.nanoTime();
         try {
-            return Jwts.parserBuilder()
-                       .setSigningKey(key)
-                       .build()
-                       .parseClaimsJws(token)
-                       .getBody();
+            Jws<Claims> jws = parser.parseClaimsJws(token);
+            verifiedTokens.put(digest, new VerifiedToken(jws.getBody(), jws.getHeader().getKeyId()));
+            return jws.getBody();
         } catch (JwtException ex) {
+            rejectedTokens.increment();
             throw new RuntimeException("Invalid JWT token", ex);
+        } finally {
+            verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
-}
 
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    private static TokenDigest digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new TokenDigest(buffer.getLong(), buffer.getLong());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
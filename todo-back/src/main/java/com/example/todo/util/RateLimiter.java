@@ -0,0 +1,64 @@
+package com.example.todo.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * キーごとのトークンバケット（GCRA 方式）。
+ *
+ * バケットの状態を「次のトークンが補充される理論上の時刻」1つの long で表し、CAS だけで更新する（ロックなし）。
+ * 毎秒 rate 個補充され、最大 burst 個まで溜まるトークンバケットと同じ判定になる。
+ * 一定時間アクセスのないバケットは破棄する。満杯まで回復したバケットを破棄しても判定は変わらない。
+ */
+public class RateLimiter {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final Cache<Object, AtomicLong> buckets;
+    private final LongSupplier nanoClock;
+
+    public RateLimiter(double ratePerSecond, int burst, Duration idleTimeout, long maximumSize) {
+        this(ratePerSecond, burst, idleTimeout, maximumSize, System::nanoTime);
+    }
+
+    // nanoClock はテストで時刻を進めるためのもの
+    RateLimiter(double ratePerSecond, int burst, Duration idleTimeout, long maximumSize, LongSupplier nanoClock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate and burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+        this.capacityNanos = intervalNanos * burst;
+        // 満杯に戻るまでの時間より短いと、破棄によってトークンが増えてしまう
+        Duration refill = Duration.ofNanos(capacityNanos);
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(idleTimeout.compareTo(refill) > 0 ? idleTimeout : refill)
+                .maximumSize(maximumSize)
+                .build();
+        this.nanoClock = nanoClock;
+    }
+
+    // トークンを1つ取得する。取得できた場合は 0、できなかった場合は次に取得できるまでのナノ秒を返す
+    public long tryAcquire(Object key) {
+        long now = nanoClock.getAsLong();
+        AtomicLong state = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long tat = state.get();
+            long next = (tat - now > 0 ? tat : now) + intervalNanos;
+            long over = next - now - capacityNanos;
+            if (over > 0) {
+                return over;
+            }
+            if (state.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,4 @@
+-- カレンダー表示（TodoRepository.findCalendar*）用。期間内に開始するタスクは start_time、
+-- 期間より前に開始して期間内まで続くタスクは end_time の範囲スキャンで取得する
+CREATE INDEX idx_todos_user_start ON todos (user_id, start_time);
+CREATE INDEX idx_todos_user_end ON todos (user_id, end_time);
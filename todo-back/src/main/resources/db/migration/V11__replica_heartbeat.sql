@@ -0,0 +1,5 @@
+-- 読み書き分離時のレプリカ遅延の計測用（ReplicaDataSource）。ノードごとにプライマリで書いた時刻がレプリカに届くまでの差を測る
+CREATE TABLE replica_heartbeat (
+    node_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    beat_millis BIGINT NOT NULL
+);
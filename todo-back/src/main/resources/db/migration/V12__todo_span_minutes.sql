@@ -0,0 +1,7 @@
+-- 期間より前に開始して期間内まで続くタスク（TodoRepository.findCalendarSpanning）は、ユーザーごとの最長の所要時間だけ
+-- 遡った start_time の範囲で探す。所要時間を生成列で持ち、(user_id, span_minutes) の末尾から最大値を引く
+ALTER TABLE todos
+    ADD COLUMN span_minutes INT GENERATED ALWAYS AS (TIMESTAMPDIFF(MINUTE, start_time, end_time)) STORED;
+CREATE INDEX idx_todos_user_span ON todos (user_id, span_minutes);
+-- end_time の範囲スキャンは後続の行をほぼすべて読むため使わない
+DROP INDEX idx_todos_user_end ON todos;
@@ -0,0 +1,7 @@
+-- 完了時刻を end_time（予定の終了時刻）とは別の列に持つ。
+-- これまで end_time に書き込んでいたのは完了時の UPDATE（TodoRepository.updateCompletionByIdIn）だけのため、
+-- 完了済みの行の end_time は完了時刻として completed_at に移し、end_time は空に戻す
+ALTER TABLE todos ADD COLUMN completed_at DATETIME(6);
+UPDATE todos SET completed_at = end_time, end_time = NULL WHERE completed = TRUE AND end_time IS NOT NULL;
+-- 予測モデルの再構築（TodoRepository.streamCompletedSince）でウォーターマーク以降の完了だけを範囲スキャンする
+CREATE INDEX idx_todos_completed_at ON todos (completed_at);
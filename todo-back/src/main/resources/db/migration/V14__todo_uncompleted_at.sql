@@ -0,0 +1,4 @@
+-- 学習済みの完了を取り消した最後の時刻を引けるようにする。予測モデルのスナップショットがこれより古い場合、
+-- スナップショット以降の完了を足すだけでは減算が反映されないため、全件から再構築する（CompletionTimePredictor.rebuild）
+ALTER TABLE todos ADD COLUMN uncompleted_at DATETIME(6);
+CREATE INDEX idx_todos_uncompleted_at ON todos (uncompleted_at);
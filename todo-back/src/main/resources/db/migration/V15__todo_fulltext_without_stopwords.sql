@@ -0,0 +1,7 @@
+-- ngram パーサーは既定のストップワード（英語の "a" や "i" など）を含むトークンを索引に入れないため、
+-- "mail" の "ai" のように英字の多くの組が検索できない。ストップワードを無効にして索引を作り直す。
+-- innodb_ft_enable_stopword は索引の作成時に読まれる（同じ接続で実行されるため SESSION で足りる）
+SET SESSION innodb_ft_enable_stopword = OFF;
+ALTER TABLE todos DROP INDEX ft_todos_title_context;
+ALTER TABLE todos ADD FULLTEXT INDEX ft_todos_title_context (title, context) WITH PARSER ngram;
+SET SESSION innodb_ft_enable_stopword = ON;
@@ -0,0 +1,12 @@
+-- トゥームストーンを保持期間で削除するため、行の最終更新時刻を持つ（upsert で版数が変わるたびに更新される）。
+-- 既存の行は移行時点の時刻になり、そこから保持期間は残る
+ALTER TABLE sync_changes
+    ADD COLUMN changed_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    ADD INDEX idx_sync_changes_tombstones (deleted, changed_at);
+
+-- ユーザーごとに、削除済みのトゥームストーンの最大版数。これより前の since には削除を伝えられないため全件を返す
+CREATE TABLE sync_horizons (
+    user_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
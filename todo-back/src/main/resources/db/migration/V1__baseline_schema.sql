@@ -0,0 +1,34 @@
+-- 既存の ddl-auto=update で作成されていたスキーマ
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255),
+    password VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS folders (
+    id      BIGINT       NOT NULL AUTO_INCREMENT,
+    name    VARCHAR(255) NOT NULL,
+    user_id BIGINT,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS todos (
+    id                        BIGINT       NOT NULL AUTO_INCREMENT,
+    title                     VARCHAR(255),
+    completed                 BIT(1)       NOT NULL,
+    created_at                DATETIME(6),
+    user_id                   BIGINT,
+    task_type                 VARCHAR(255),
+    priority                  VARCHAR(255),
+    start_time                DATETIME(6),
+    end_time                  DATETIME(6),
+    frequency                 VARCHAR(255),
+    context                   VARCHAR(255),
+    actual_completion_time    INT,
+    predicted_completion_time INT,
+    folder_id                 BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_todos_folder FOREIGN KEY (folder_id) REFERENCES folders (id)
+) ENGINE = InnoDB;
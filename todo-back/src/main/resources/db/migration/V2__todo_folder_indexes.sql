@@ -0,0 +1,11 @@
+-- TodoRepository / FolderRepository のアクセスパターンに合わせた複合インデックス
+
+-- findByUserIdAndFolderId / findByUserIdAndFolderIsNull / findByUserId（先頭一致）
+-- および フォルダ単位のキーセットページング (created_at, id)
+CREATE INDEX idx_todos_user_folder_created ON todos (user_id, folder_id, created_at, id);
+
+-- 全件ビューのキーセットページング
+CREATE INDEX idx_todos_user_created ON todos (user_id, created_at, id);
+
+-- FolderRepository.findByUserId
+CREATE INDEX idx_folders_user ON folders (user_id);
@@ -0,0 +1,11 @@
+-- IDENTITY では Hibernate の INSERT バッチが無効になるため、プール型シーケンス（allocationSize = 50）に切り替える。
+-- MySQL にはシーケンスがないので Hibernate はテーブルでエミュレートする。
+-- pooled オプティマイザは取得値を上限として (next_val - 49) から払い出すため、既存の最大ID + 51 から開始する。
+CREATE TABLE users_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO users_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM users;
+
+CREATE TABLE folders_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO folders_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM folders;
+
+CREATE TABLE todos_seq (next_val BIGINT) ENGINE = InnoDB;
+INSERT INTO todos_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM todos;
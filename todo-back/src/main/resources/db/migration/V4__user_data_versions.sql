@@ -0,0 +1,7 @@
+-- ユーザーごとのデータ版数。Todo・フォルダの変更ごとに同じトランザクション内で +1 し、一覧 API の ETag に使う。
+-- users に行がないユーザーID でも記録できるよう別テーブルにする（行がなければ版数 0 とみなす）。
+CREATE TABLE user_data_versions (
+    user_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+) ENGINE = InnoDB;
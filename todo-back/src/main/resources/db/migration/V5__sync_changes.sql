@@ -0,0 +1,11 @@
+-- 差分同期用の変更記録。エンティティごとに最新の版数（user_data_versions と同じ系列）と削除フラグ（トゥームストーン）を1行で保持する。
+-- (user_id, version) のインデックスで「指定版数より後の変更」を範囲スキャンする。
+CREATE TABLE sync_changes (
+    user_id   BIGINT      NOT NULL,
+    entity    VARCHAR(16) NOT NULL,
+    entity_id BIGINT      NOT NULL,
+    version   BIGINT      NOT NULL,
+    deleted   BOOLEAN     NOT NULL,
+    PRIMARY KEY (user_id, entity, entity_id),
+    INDEX idx_sync_changes_user_version (user_id, version)
+) ENGINE = InnoDB;
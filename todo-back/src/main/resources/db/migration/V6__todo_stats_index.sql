@@ -0,0 +1,3 @@
+-- TodoRepository.aggregateByUserId（ダッシュボード統計）をインデックスだけで集計するためのカバリングインデックス
+CREATE INDEX idx_todos_user_stats
+    ON todos (user_id, folder_id, task_type, priority, completed, predicted_completion_time, actual_completion_time);
@@ -0,0 +1,3 @@
+-- タイトル・コンテキストの全文検索（TodoRepository.search）。
+-- 日本語は空白で分かち書きされないため ngram パーサー（既定の ngram_token_size = 2）を使う。
+ALTER TABLE todos ADD FULLTEXT INDEX ft_todos_title_context (title, context) WITH PARSER ngram;
@@ -0,0 +1,18 @@
+-- task_type / priority / frequency を VARCHAR(255) から TINYINT のコードに変換する（TaskType / Priority / Frequency 列挙型のコード）。
+-- 既知の値以外（自由入力されていた値）は NULL（未指定）にする。context は自由入力のため文字列のまま。
+UPDATE todos SET
+    task_type = CASE LOWER(task_type)
+        WHEN 'coding' THEN '1' WHEN 'study' THEN '2' WHEN 'shopping' THEN '3' WHEN 'exercise' THEN '4'
+        ELSE NULL END,
+    priority = CASE LOWER(priority)
+        WHEN 'high' THEN '1' WHEN 'medium' THEN '2' WHEN 'low' THEN '3'
+        ELSE NULL END,
+    frequency = CASE LOWER(frequency)
+        WHEN 'none' THEN '0' WHEN 'daily' THEN '1' WHEN 'weekly' THEN '2'
+        ELSE NULL END;
+
+-- idx_todos_user_stats も新しい列型で再構築される
+ALTER TABLE todos
+    MODIFY task_type TINYINT,
+    MODIFY priority  TINYINT,
+    MODIFY frequency TINYINT;
@@ -0,0 +1,9 @@
+-- 繰り返しタスク（frequency = daily / weekly）の完了済みの回だけを保存する。
+-- 回は todos.start_time を起点に周期で展開して求めるため、未完了の回は行を持たない。
+CREATE TABLE todo_occurrences (
+    todo_id          BIGINT      NOT NULL,
+    occurrence_start DATETIME(6) NOT NULL,
+    completed_at     DATETIME(6) NOT NULL,
+    PRIMARY KEY (todo_id, occurrence_start),
+    CONSTRAINT fk_todo_occurrences_todo FOREIGN KEY (todo_id) REFERENCES todos (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
@@ -0,0 +1,147 @@
+package com.example.todo;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * プラットフォームスレッドと仮想スレッドでのスループット・p99 レイテンシを比較する負荷試験。
+ * 通常のテストからは除外されており、./gradlew loadTest -PjavaVersion=21 で実行する。
+ */
+@Tag("load")
+@Testcontainers(disabledWithoutDocker = true)
+class VirtualThreadLoadTests {
+
+    private static final int CONCURRENCY = 1000;
+    private static final int REQUESTS = 20_000;
+    private static final int POOL_SIZE = 40;
+
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @BeforeAll
+    static void startDatabase() {
+        mysql.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        mysql.stop();
+    }
+
+    @Test
+    void compareThroughputAndTailLatency() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads require Java 21");
+
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("platform threads: %,.0f req/s, p99 %.1f ms, errors %d%n",
+                platform.throughput(), platform.p99Millis(), platform.errors());
+        System.out.printf("virtual threads : %,.0f req/s, p99 %.1f ms, errors %d%n",
+                virtual.throughput(), virtual.p99Millis(), virtual.errors());
+        System.out.printf("throughput ratio: %.2fx, p99 ratio: %.2fx%n",
+                virtual.throughput() / platform.throughput(), virtual.p99Millis() / platform.p99Millis());
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TodoApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + mysql.getJdbcUrl() + "?rewriteBatchedStatements=true",
+                        "spring.datasource.username=" + mysql.getUsername(),
+                        "spring.datasource.password=" + mysql.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.open-in-view=false",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "spring.datasource.hikari.connection-timeout=10000",
+                        "todo.ratelimit.enabled=false")
+                .run()) {
+            seed(context.getBean(JdbcTemplate.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            // 一覧キャッシュを経由しないページング API を叩き、毎回 DB まで到達させる
+            URI uri = URI.create("http://localhost:" + port + "/api/todos?userId=1&all=true&limit=50");
+            return load(uri);
+        }
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM todos WHERE user_id = 1", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        for (int i = 0; i < 500; i++) {
+            jdbcTemplate.update("INSERT INTO todos (title, completed, created_at, user_id) VALUES (?, false, NOW(6), 1)",
+                    "todo-" + i);
+        }
+    }
+
+    private Result load(URI uri) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(64))
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+
+        // ウォームアップ
+        for (int i = 0; i < 500; i++) {
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+        long start = System.nanoTime();
+        for (int w = 0; w < CONCURRENCY; w++) {
+            workers.submit(() -> {
+                int i;
+                while ((i = next.getAndIncrement()) < REQUESTS) {
+                    long t0 = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception ex) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - t0;
+                }
+            });
+        }
+        workers.shutdown();
+        assertThat(workers.awaitTermination(10, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        double p99Millis = latencies[(int) (REQUESTS * 0.99) - 1] / 1_000_000.0;
+        return new Result(REQUESTS / (elapsed / 1_000_000_000.0), p99Millis, errors.get());
+    }
+
+    private record Result(double throughput, double p99Millis, int errors) { }
+}
@@ -0,0 +1,162 @@
+package com.example.todo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * プライマリとレプリカの代わりに2つの組み込み DB を使い、読み取り専用トランザクションの振り分けを確認する。
+ */
+class ReplicaRoutingTests {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private ReplicaStickiness stickiness;
+    private ReplicaDataSource replicaDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        stickiness = new ReplicaStickiness(Duration.ofSeconds(5), 100);
+        replicaDataSource = new ReplicaDataSource(primary, List.of(replica), stickiness, Duration.ZERO, Duration.ofSeconds(3));
+        // 最初のチェックでハートビートの行を作り、それがレプリカに届いてから使い始める
+        replicaDataSource.checkHealth();
+        assertThat(replicaDataSource.healthyCount()).isZero();
+        replicate();
+        replicaDataSource.checkHealth();
+
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(replicaDataSource);
+        routing.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stickiness.clear();
+        replicaDataSource.close();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplicaAndWritesToPrimary() {
+        assertThat(readOnly.execute(status -> source())).isEqualTo("replica");
+        assertThat(readWrite.execute(status -> source())).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStickToPrimaryAfterOwnWrite() {
+        stickiness.markWrite(1L);
+
+        stickiness.bind(1L);
+        assertThat(readOnly.execute(status -> source())).isEqualTo("primary");
+
+        stickiness.bind(2L);
+        assertThat(readOnly.execute(status -> source())).isEqualTo("replica");
+    }
+
+    @Test
+    void readsGoToPrimaryWhileReplicaIsBehindRequiredVersion() {
+        new JdbcTemplate(primary).update("UPDATE user_data_versions SET version = 2 WHERE user_id = 1");
+        stickiness.requireVersion(1L, 2);
+        assertThat(readOnly.execute(status -> source())).isEqualTo("primary");
+
+        replicate();
+        assertThat(readOnly.execute(status -> source())).isEqualTo("replica");
+    }
+
+    @Test
+    void unhealthyReplicaIsEjected() {
+        replica.shutdown();
+        replicaDataSource.checkHealth();
+
+        assertThat(replicaDataSource.healthyCount()).isZero();
+        assertThat(readOnly.execute(status -> source())).isEqualTo("primary");
+    }
+
+    @Test
+    void heartbeatRowIsCreatedEvenIfTableAppearsAfterConstruction() {
+        EmbeddedDatabase late = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName("late-" + System.nanoTime() + ";MODE=MySQL")
+                .build();
+        // Flyway より先に構築された場合と同じく、テーブルがない状態で作る
+        try (ReplicaDataSource dataSource = new ReplicaDataSource(late, List.of(replica), stickiness,
+                Duration.ZERO, Duration.ofSeconds(3))) {
+            JdbcTemplate jdbc = new JdbcTemplate(late);
+            jdbc.execute("CREATE TABLE replica_heartbeat (node_id VARCHAR(36) PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+
+            dataSource.checkHealth();
+            dataSource.checkHealth();
+
+            assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM replica_heartbeat", Integer.class)).isEqualTo(1);
+        } finally {
+            late.shutdown();
+        }
+    }
+
+    @Test
+    void laggingReplicaIsEjectedUntilItCatchesUp() {
+        // ハートビートが届かないまま max-lag を超えた状態にする
+        new JdbcTemplate(replica).update("UPDATE replica_heartbeat SET beat_millis = beat_millis - 60000");
+        replicaDataSource.checkHealth();
+        assertThat(replicaDataSource.healthyCount()).isZero();
+        assertThat(readOnly.execute(status -> source())).isEqualTo("primary");
+
+        replicate();
+        replicaDataSource.checkHealth();
+        assertThat(replicaDataSource.healthyCount()).isEqualTo(1);
+    }
+
+    // レプリケーションの代わりに、プライマリのハートビートと版数をレプリカへ写す
+    private void replicate() {
+        JdbcTemplate source = new JdbcTemplate(primary);
+        JdbcTemplate target = new JdbcTemplate(replica);
+        target.update("DELETE FROM replica_heartbeat");
+        source.queryForList("SELECT node_id, beat_millis FROM replica_heartbeat").forEach(row ->
+                target.update("INSERT INTO replica_heartbeat (node_id, beat_millis) VALUES (?, ?)",
+                        row.get("NODE_ID"), row.get("BEAT_MILLIS")));
+        target.update("UPDATE user_data_versions SET version = ? WHERE user_id = 1",
+                source.queryForObject("SELECT version FROM user_data_versions WHERE user_id = 1", Long.class));
+    }
+
+    private String source() {
+        return jdbcTemplate.queryForObject("SELECT name FROM source", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                // ハートビートの upsert (ON DUPLICATE KEY UPDATE) のため MySQL モードで開く
+                .setName(name + "-" + System.nanoTime() + ";MODE=MySQL")
+                .build();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE source (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO source (name) VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE replica_heartbeat (node_id VARCHAR(36) PRIMARY KEY, beat_millis BIGINT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE user_data_versions (user_id BIGINT PRIMARY KEY, version BIGINT NOT NULL)");
+        jdbcTemplate.update("INSERT INTO user_data_versions (user_id, version) VALUES (1, 1)");
+        return database;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.todo.repository;
+
+import com.example.todo.entity.Frequency;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 1万件のユーザーで、エンティティ取得（findByUserId）と読み取り専用ビュー（findViewsByUserId）の
+ * レイテンシ・割り当てバイト数を比較する。通常のテストからは除外されており、./gradlew loadTest で実行する。
+ */
+@Tag("load")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=false")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadModelComparisonTests {
+
+    private static final int ROWS = 10_000;
+    private static final int ITERATIONS = 50;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO todos (title, completed, created_at, user_id, task_type, priority, start_time, end_time,"
+                + " frequency, context, actual_completion_time, predicted_completion_time) VALUES (?, ?, ?, 1, ?, ?, ?, ?, ?, ?, ?, ?)",
+                java.util.stream.IntStream.range(0, ROWS).boxed().toList(), 1000, (ps, i) -> {
+                    ps.setString(1, "todo-" + i);
+                    ps.setBoolean(2, i % 3 == 0);
+                    ps.setObject(3, start.plusMinutes(i));
+                    ps.setInt(4, TaskType.CODING.getCode());
+                    ps.setInt(5, Priority.HIGH.getCode());
+                    ps.setObject(6, start.plusMinutes(i));
+                    ps.setObject(7, start.plusMinutes(i + 30));
+                    ps.setInt(8, Frequency.DAILY.getCode());
+                    ps.setString(9, "office");
+                    ps.setInt(10, 30);
+                    ps.setInt(11, 30 + i % 60);
+                });
+    }
+
+    @Test
+    void compareEntityAndViewReads() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        Result entities = measure(() -> readOnly.execute(status -> todoRepository.findByUserId(1L)));
+        Result views = measure(() -> readOnly.execute(status -> todoRepository.findViewsByUserId(1L)));
+
+        System.out.printf("entities: %.1f ms/op, %,d bytes/op%n", entities.millis(), entities.bytes());
+        System.out.printf("views   : %.1f ms/op, %,d bytes/op%n", views.millis(), views.bytes());
+        System.out.printf("latency ratio: %.2fx, allocation ratio: %.2fx%n",
+                views.millis() / entities.millis(), (double) views.bytes() / entities.bytes());
+
+        assertThat(views.bytes()).isLessThan(entities.bytes());
+    }
+
+    private Result measure(Supplier<List<?>> query) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        // ウォームアップ
+        for (int i = 0; i < 10; i++) {
+            assertThat(query.get()).hasSize(ROWS);
+        }
+        long bytes0 = threads.getThreadAllocatedBytes(threadId);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        long elapsed = System.nanoTime() - t0;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytes0;
+        return new Result(elapsed / 1_000_000.0 / ITERATIONS, bytes / ITERATIONS);
+    }
+
+    private record Result(double millis, long bytes) { }
+}
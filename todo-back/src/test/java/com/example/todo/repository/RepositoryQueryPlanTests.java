@@ -0,0 +1,418 @@
+package com.example.todo.repository;
+
+import com.example.todo.entity.Frequency;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TodoRepository / FolderRepository / UserRepository の独自クエリに対して EXPLAIN を実行し、
+ * フルスキャン (type=ALL) に退行していないことを確認する。更新系はロールバックするトランザクションで発行した文を調べる。
+ *
+ * 次は対象外:
+ * <ul>
+ *   <li>streamRecurring: 起動時とスケジューラが全ユーザーの繰り返しタスクを読むバッチで、全件を読むのが前提</li>
+ *   <li>incrementDataVersion: INSERT ... ON DUPLICATE KEY UPDATE で、読み取りのアクセスパスがない</li>
+ *   <li>OccurrenceRepository / SyncChangeRepository: JdbcTemplate で発行するため Hibernate を通らない
+ *       （どちらも主キーか idx_sync_changes_user_version の先頭列で絞り込む）</li>
+ * </ul>
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.todo.repository.RepositoryQueryPlanTests$CapturingInspector")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTests {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDateTime cursorTime = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @BeforeAll
+    void seed() {
+        // 小さすぎるテーブルではオプティマイザがフルスキャンを選ぶため、複数ユーザー分のデータを投入する
+        for (long userId = 1; userId <= 20; userId++) {
+            jdbcTemplate.update("INSERT INTO folders (name, user_id) VALUES (?, ?)", "folder-" + userId, userId);
+            Long folderId = jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+            for (int i = 0; i < 50; i++) {
+                jdbcTemplate.update("INSERT INTO todos (title, completed, created_at, user_id, folder_id) VALUES (?, ?, ?, ?, ?)",
+                        "todo-" + i, i % 3 == 0, cursorTime.plusMinutes(i), userId, i % 2 == 0 ? folderId : null);
+            }
+        }
+        jdbcTemplate.execute("ANALYZE TABLE todos, folders");
+    }
+
+    @BeforeEach
+    void clearCaptured() {
+        CapturingInspector.clear();
+    }
+
+    @Test
+    void findByUserIdUsesIndex() {
+        todoRepository.findByUserId(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findByUserIdAndFolderIdUsesIndex() {
+        todoRepository.findByUserIdAndFolderId(1L, 1L);
+        assertNoFullScan(1L, 1L);
+    }
+
+    @Test
+    void findByUserIdAndFolderIsNullUsesIndex() {
+        todoRepository.findByUserIdAndFolderIsNull(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findViewsByUserIdUsesIndex() {
+        todoRepository.findViewsByUserId(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findViewsByUserIdAndFolderIdUsesIndex() {
+        todoRepository.findViewsByUserIdAndFolderId(1L, 1L);
+        assertNoFullScan(1L, 1L);
+    }
+
+    @Test
+    void findViewsByUserIdAndFolderIsNullUsesIndex() {
+        todoRepository.findViewsByUserIdAndFolderIsNull(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findPageByUserIdUsesIndex() {
+        todoRepository.findPageByUserId(1L, Limit.of(20));
+        assertNoFullScan(1L, 20);
+    }
+
+    @Test
+    void findPageByUserIdAfterUsesIndex() {
+        todoRepository.findPageByUserIdAfter(1L, cursorTime, 1L, Limit.of(20));
+        assertNoFullScan(1L, cursorTime, cursorTime, 1L, 20);
+    }
+
+    @Test
+    void findPageByUserIdAndFolderIdUsesIndex() {
+        todoRepository.findPageByUserIdAndFolderId(1L, 1L, Limit.of(20));
+        assertNoFullScan(1L, 1L, 20);
+    }
+
+    @Test
+    void findPageByUserIdAndFolderIdAfterUsesIndex() {
+        todoRepository.findPageByUserIdAndFolderIdAfter(1L, 1L, cursorTime, 1L, Limit.of(20));
+        assertNoFullScan(1L, 1L, cursorTime, cursorTime, 1L, 20);
+    }
+
+    @Test
+    void findPageByUserIdAndFolderIsNullUsesIndex() {
+        todoRepository.findPageByUserIdAndFolderIsNull(1L, Limit.of(20));
+        assertNoFullScan(1L, 20);
+    }
+
+    @Test
+    void findPageByUserIdAndFolderIsNullAfterUsesIndex() {
+        todoRepository.findPageByUserIdAndFolderIsNullAfter(1L, cursorTime, 1L, Limit.of(20));
+        assertNoFullScan(1L, cursorTime, cursorTime, 1L, 20);
+    }
+
+    @Test
+    void findCalendarStartingBetweenUsesIndex() {
+        todoRepository.findCalendarStartingBetween(1L, cursorTime, cursorTime.plusDays(7));
+        assertNoFullScan(1L, cursorTime, cursorTime.plusDays(7));
+    }
+
+    @Test
+    void findCalendarSpanningUsesIndex() {
+        todoRepository.findCalendarSpanning(1L, cursorTime.minusDays(1), cursorTime);
+        assertNoFullScan(1L, cursorTime.minusDays(1), cursorTime, cursorTime);
+    }
+
+    @Test
+    void findMaxSpanMinutesByUserIdUsesIndex() {
+        todoRepository.findMaxSpanMinutesByUserId(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findFoldersByUserIdUsesIndex() {
+        folderRepository.findByUserId(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findFolderUserIdByIdUsesIndex() {
+        folderRepository.findUserIdById(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findViewsByIdInUsesIndex() {
+        todoRepository.findViewsByIdIn(List.of(1L, 2L));
+        assertNoFullScan(1L, 2L);
+    }
+
+    @Test
+    void findOwnersByIdInUsesIndex() {
+        todoRepository.findOwnersByIdIn(List.of(1L, 2L));
+        assertNoFullScan(1L, 2L);
+    }
+
+    @Test
+    void findFeaturesByIdInUsesIndex() {
+        todoRepository.findFeaturesByIdIn(List.of(1L, 2L));
+        assertNoFullScan(1L, 2L);
+    }
+
+    @Test
+    void findTodoUserIdByIdUsesIndex() {
+        todoRepository.findUserIdById(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findRecurringViewsByUserIdUsesIndex() {
+        todoRepository.findRecurringViewsByUserId(1L, List.of(Frequency.DAILY, Frequency.WEEKLY), cursorTime);
+        assertNoFullScan(1L, Frequency.DAILY.getCode(), Frequency.WEEKLY.getCode(), cursorTime);
+    }
+
+    @Test
+    void streamByUserIdUsesIndex() {
+        readStream(() -> todoRepository.streamByUserId(1L));
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void streamByUserIdAndFolderIdUsesIndex() {
+        readStream(() -> todoRepository.streamByUserIdAndFolderId(1L, 1L));
+        assertNoFullScan(1L, 1L);
+    }
+
+    @Test
+    void streamByUserIdAndFolderIsNullUsesIndex() {
+        readStream(() -> todoRepository.streamByUserIdAndFolderIsNull(1L));
+        assertNoFullScan(1L);
+    }
+
+    // 全件からの再構築（since が最古）では全件を読む。ここでは前回の続きからの差分読み込みを確認する
+    @Test
+    void streamCompletedSinceUsesIndex() {
+        readStream(() -> todoRepository.streamCompletedSince(cursorTime));
+        assertNoFullScan(cursorTime);
+    }
+
+    @Test
+    void findLastUncompletedAtUsesIndex() {
+        todoRepository.findLastUncompletedAt();
+        assertNoFullScan();
+    }
+
+    @Test
+    void aggregateByUserIdUsesIndex() {
+        todoRepository.aggregateByUserId(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void countByFolderIdUsesIndex() {
+        todoRepository.countByFolderId(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void findIdsByFolderIdUsesIndex() {
+        todoRepository.findIdsByFolderId(1L, Limit.of(20));
+        assertNoFullScan(1L, 20);
+    }
+
+    @Test
+    void searchUsesFulltextIndex() {
+        todoRepository.search(1L, "+todo", null, null, 20);
+        assertNoFullScan("+todo", 1L, null, null, null, null, 20);
+    }
+
+    @Test
+    void searchAfterUsesFulltextIndex() {
+        todoRepository.searchAfter(1L, "+todo", null, null, cursorTime, 1L, 20);
+        assertNoFullScan("+todo", 1L, null, null, null, null, cursorTime, cursorTime, 1L, 20);
+    }
+
+    @Test
+    void findUserByUsernameUsesIndex() {
+        userRepository.findByUsername("user-1");
+        assertNoFullScan("user-1");
+    }
+
+    @Test
+    void findDataVersionUsesIndex() {
+        userRepository.findDataVersion(1L);
+        assertNoFullScan(1L);
+    }
+
+    @Test
+    void updateFolderNameByIdUsesIndex() {
+        rolledBack(() -> folderRepository.updateNameById(1L, "renamed"));
+        assertNoFullScanOf("update", "renamed", 1L);
+    }
+
+    @Test
+    void deleteFolderRowByIdUsesIndex() {
+        // 配下にタスクがあるフォルダは外部キーで削除できないため、存在しない ID で文だけを発行する
+        rolledBack(() -> folderRepository.deleteRowById(999L));
+        assertNoFullScanOf("delete", 999L);
+    }
+
+    @Test
+    void updateFolderByIdInUsesIndex() {
+        rolledBack(() -> todoRepository.updateFolderByIdIn(List.of(1L, 2L), folderRepository.getReferenceById(1L)));
+        assertNoFullScanOf("update", 1L, 1L, 2L);
+    }
+
+    @Test
+    void clearFolderByIdInUsesIndex() {
+        rolledBack(() -> todoRepository.clearFolderByIdIn(List.of(1L, 2L)));
+        assertNoFullScanOf("update", 1L, 2L);
+    }
+
+    @Test
+    void deleteByIdInUsesIndex() {
+        rolledBack(() -> todoRepository.deleteByIdIn(List.of(1L, 2L)));
+        assertNoFullScanOf("delete", 1L, 2L);
+    }
+
+    @Test
+    void updateTitleByIdUsesIndex() {
+        rolledBack(() -> todoRepository.updateTitleById(1L, "renamed", 30));
+        assertNoFullScanOf("update", "renamed", 30, 1L);
+    }
+
+    @Test
+    void deleteTodoRowByIdUsesIndex() {
+        rolledBack(() -> todoRepository.deleteRowById(1L));
+        assertNoFullScanOf("delete", 1L);
+    }
+
+    @Test
+    void clearFolderUsesIndex() {
+        rolledBack(() -> todoRepository.clearFolder(1L));
+        assertNoFullScanOf("update", 1L);
+    }
+
+    @Test
+    void updateCompletionByIdInUsesIndex() {
+        LocalDateTime now = cursorTime.plusHours(1);
+        rolledBack(() -> todoRepository.updateCompletionByIdIn(List.of(1L, 2L), true, now));
+        assertNoFullScanOf("update", true, true, now, true, now, true, now, now, 1L, 2L, true);
+    }
+
+    // 読み取り専用トランザクションの中でストリームを最後まで読む
+    private <T> void readStream(Supplier<Stream<T>> query) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            try (Stream<T> rows = query.get()) {
+                rows.forEach(row -> { });
+            }
+        });
+    }
+
+    // 更新系のクエリを発行し、シードしたデータを残さないようロールバックする
+    private void rolledBack(Runnable statement) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            statement.run();
+            status.setRollbackOnly();
+        });
+    }
+
+    private void assertNoFullScan(Object... args) {
+        assertNoFullScanOf("select", args);
+    }
+
+    // verb で始まる最後の文（select / update / delete）を EXPLAIN する
+    private void assertNoFullScanOf(String verb, Object... args) {
+        String sql = CapturingInspector.last(verb);
+        assertThat(sql).as("captured SQL").isNotNull();
+        assertThat(sql.chars().filter(c -> c == '?').count())
+                .as("bind parameter count for: %s", sql)
+                .isEqualTo(args.length);
+
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        for (Map<String, Object> row : plan) {
+            if (row.get("table") == null) {
+                continue;
+            }
+            assertThat(row.get("type"))
+                    .as("access type on %s for: %s (plan: %s)", row.get("table"), sql, plan)
+                    .isNotEqualTo("ALL");
+        }
+    }
+
+    /**
+     * Hibernate が発行した SQL を記録する。
+     */
+    public static class CapturingInspector implements StatementInspector {
+        private static final List<String> statements = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        static void clear() {
+            statements.clear();
+        }
+
+        static String last(String verb) {
+            synchronized (statements) {
+                for (int i = statements.size() - 1; i >= 0; i--) {
+                    if (statements.get(i).trim().toLowerCase().startsWith(verb)) {
+                        return statements.get(i);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
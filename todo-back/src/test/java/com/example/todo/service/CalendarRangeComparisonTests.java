@@ -0,0 +1,123 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.CalendarEntry;
+import com.example.todo.dto.TodoCalendar;
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Priority;
+import com.example.todo.entity.TaskType;
+import com.example.todo.repository.TodoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 5万件のユーザーで、1週間分の表示について
+ * 全件取得してクライアント側で絞り込む方法（findViewsByUserId + startTime でのフィルタ）と
+ * 期間クエリ（getTodosInRange）のレイテンシ・レスポンスサイズを比較する。
+ * 通常のテストからは除外されており、./gradlew loadTest で実行する。
+ */
+@Tag("load")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=false")
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class CalendarRangeComparisonTests {
+
+    private static final int ROWS = 50_000;
+    private static final int ITERATIONS = 20;
+    private static final LocalDateTime SEED_START = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private TodoRepository todoRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        // 20分おきに約2年分。10件に1件は3日間にまたがる
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO todos (title, completed, created_at, user_id, task_type, priority, start_time, end_time)"
+                + " VALUES (?, ?, ?, 1, ?, ?, ?, ?)",
+                IntStream.range(0, ROWS).boxed().toList(), 1000, (ps, i) -> {
+                    LocalDateTime start = SEED_START.plusMinutes(20L * i);
+                    ps.setString(1, "todo-" + i);
+                    ps.setBoolean(2, i % 3 == 0);
+                    ps.setObject(3, start);
+                    ps.setInt(4, TaskType.CODING.getCode());
+                    ps.setInt(5, Priority.MEDIUM.getCode());
+                    ps.setObject(6, start);
+                    ps.setObject(7, i % 10 == 0 ? start.plusDays(3) : start.plusMinutes(30));
+                });
+        jdbcTemplate.execute("ANALYZE TABLE todos");
+    }
+
+    @Test
+    void compareFetchAllAndRangeQuery() throws Exception {
+        LocalDateTime from = SEED_START.plusDays(300);
+        LocalDateTime to = from.plusDays(7);
+
+        Supplier<Object> fetchAll = () -> todoRepository.findViewsByUserId(1L).stream()
+                .filter(t -> t.getStartTime() != null && !t.getStartTime().isBefore(from) && t.getStartTime().isBefore(to))
+                .toList();
+        Supplier<Object> range = () -> todoService.getTodosInRange(1L, from, to);
+
+        // クライアント側の絞り込み結果は、期間クエリの結果（重なり判定）に含まれる
+        @SuppressWarnings("unchecked")
+        List<Long> filteredIds = ((List<TodoView>) fetchAll.get()).stream().map(TodoView::getId).toList();
+        TodoCalendar calendar = (TodoCalendar) range.get();
+        assertThat(calendar.getTodos().stream().map(CalendarEntry::getId).toList()).containsAll(filteredIds);
+
+        // 全件取得はクライアントへ全件を送るため、サイズは絞り込み前の一覧で測る
+        Result all = measure(fetchAll, objectMapper.writeValueAsBytes(todoRepository.findViewsByUserId(1L)).length);
+        Result ranged = measure(range, objectMapper.writeValueAsBytes(calendar).length);
+
+        System.out.printf("fetch all + filter: %.1f ms/op, %,d response bytes%n", all.millis(), all.bytes());
+        System.out.printf("range query       : %.1f ms/op, %,d response bytes%n", ranged.millis(), ranged.bytes());
+        System.out.printf("latency ratio: %.2fx, size ratio: %.4fx%n",
+                ranged.millis() / all.millis(), (double) ranged.bytes() / all.bytes());
+
+        assertThat(ranged.bytes()).isLessThan(all.bytes());
+        assertThat(ranged.millis()).isLessThan(all.millis());
+    }
+
+    private Result measure(Supplier<Object> query, long responseBytes) {
+        // ウォームアップ
+        for (int i = 0; i < 5; i++) {
+            query.get();
+        }
+        long t0 = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.get();
+        }
+        long elapsed = System.nanoTime() - t0;
+        return new Result(elapsed / 1_000_000.0 / ITERATIONS, responseBytes);
+    }
+
+    private record Result(double millis, long bytes) { }
+}
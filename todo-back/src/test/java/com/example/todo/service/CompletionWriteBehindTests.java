@@ -0,0 +1,115 @@
+package com.example.todo.service;
+
+import com.example.todo.cache.UserListCache;
+import com.example.todo.entity.Todo;
+import com.example.todo.repository.TodoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 応答済みの切り替えが、反映前にプロセスが落ちても次の起動時にジャーナルから復元されることを確認する。
+ */
+class CompletionWriteBehindTests {
+
+    private static final long USER_ID = 10L;
+
+    @TempDir
+    Path journalDir;
+
+    private final TodoService todoService = mock(TodoService.class);
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final UserListCache listCache = mock(UserListCache.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @BeforeEach
+    void setUp() {
+        when(listCache.owner(eq(Todo.class), anyLong(), any())).thenReturn(USER_ID);
+    }
+
+    private CompletionWriteBehind start() throws IOException {
+        CompletionWriteBehind writeBehind = new CompletionWriteBehind(true, journalDir.toString(),
+                todoService, todoRepository, listCache, transactionTemplate);
+        writeBehind.init();
+        return writeBehind;
+    }
+
+    @Test
+    void replaysJournalAfterCrash() throws IOException {
+        CompletionWriteBehind crashed = start();
+        crashed.toggle(1L, true);
+        crashed.toggle(2L, true);
+        crashed.toggle(1L, false);
+        // flush も shutdown も呼ばずに落ちたものとして、同じディレクトリで起動し直す
+
+        CompletionWriteBehind restarted = start();
+        assertThat(restarted.hasPending(USER_ID)).isTrue();
+        verify(todoService, never()).updateCompletion(anyList(), anyBoolean());
+
+        restarted.flush();
+
+        verify(todoService).updateCompletion(List.of(2L), true);
+        verify(todoService).updateCompletion(List.of(1L), false);
+        assertThat(restarted.hasPending(USER_ID)).isFalse();
+        // 反映済みのセグメントは削除され、追記中のセグメントだけが残る
+        assertThat(journalFiles()).hasSize(1);
+    }
+
+    @Test
+    void ignoresTornRecordAtEndOfSegment() throws IOException {
+        CompletionWriteBehind crashed = start();
+        crashed.toggle(1L, true);
+        Path segment = journalFiles().get(0);
+        // レコードの書き込み途中で落ちた（応答していない）切り替え
+        Files.write(segment, new byte[] {0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+
+        CompletionWriteBehind restarted = start();
+        restarted.flush();
+
+        verify(todoService).updateCompletion(List.of(1L), true);
+        verify(todoService, never()).updateCompletion(anyList(), eq(false));
+    }
+
+    @Test
+    void failedFlushKeepsTogglesForNextFlush() throws IOException {
+        CompletionWriteBehind writeBehind = start();
+        writeBehind.toggle(1L, true);
+        when(todoService.updateCompletion(List.of(1L), true)).thenThrow(new IllegalStateException("database down"))
+                .thenReturn(1);
+
+        writeBehind.flush();
+        assertThat(writeBehind.hasPending(USER_ID)).isTrue();
+
+        // 反映に失敗したまま落ちても、残ったセグメントから復元される
+        CompletionWriteBehind restarted = start();
+        assertThat(restarted.hasPending(USER_ID)).isTrue();
+        restarted.flush();
+        assertThat(restarted.hasPending(USER_ID)).isFalse();
+    }
+
+    private List<Path> journalFiles() throws IOException {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.Occurrence;
+import com.example.todo.dto.TodoView;
+import com.example.todo.entity.Frequency;
+import com.example.todo.repository.OccurrenceRepository;
+import com.example.todo.repository.TodoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 規則からの回の展開（起点・周期・期間の境界）と完了済みの回の突き合わせを確認する。
+ */
+class RecurrenceServiceTests {
+
+    private static final Long USER_ID = 1L;
+
+    private final TodoRepository todoRepository = mock(TodoRepository.class);
+    private final OccurrenceRepository occurrenceRepository = mock(OccurrenceRepository.class);
+    private final RecurrenceService service = new RecurrenceService(todoRepository, occurrenceRepository,
+            mock(ApplicationEventPublisher.class), Duration.ofDays(92));
+
+    @Test
+    void firstOnOrAfterReturnsAnchorUntilItHasPassed() {
+        LocalDateTime anchor = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 1, anchor.minusDays(3))).isEqualTo(anchor);
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 1, anchor)).isEqualTo(anchor);
+    }
+
+    @Test
+    void firstOnOrAfterRoundsUpToNextOccurrence() {
+        LocalDateTime anchor = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+        // ちょうど回の開始時刻ならその回、1分でも過ぎていれば次の回
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 1, anchor.plusDays(5)))
+                .isEqualTo(anchor.plusDays(5));
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 1, anchor.plusDays(5).plusMinutes(1)))
+                .isEqualTo(anchor.plusDays(6));
+        // 日数では同じ日でも、時刻が起点より前なら同じ日の回
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 1, LocalDateTime.of(2026, 1, 4, 8, 0)))
+                .isEqualTo(LocalDateTime.of(2026, 1, 4, 9, 0));
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 7, anchor.plusDays(8)))
+                .isEqualTo(anchor.plusDays(14));
+        assertThat(RecurrenceService.firstOnOrAfter(anchor, 7, anchor.plusDays(6).plusHours(23)))
+                .isEqualTo(anchor.plusDays(7));
+    }
+
+    @Test
+    void getOccurrencesExpandsRulesWithinWindowAndMarksCompleted() {
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 12, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 1, 8, 0, 0);
+        TodoView daily = rule(10L, Frequency.DAILY, LocalDateTime.of(2026, 1, 1, 9, 0));
+        TodoView weekly = rule(20L, Frequency.WEEKLY, LocalDateTime.of(2025, 12, 29, 10, 0));
+        when(todoRepository.findRecurringViewsByUserId(eq(USER_ID), any(), eq(to))).thenReturn(List.of(daily, weekly));
+        LocalDateTime completedAt = LocalDateTime.of(2026, 1, 2, 9, 30);
+        when(occurrenceRepository.findCompleted(anyCollection(), eq(from), eq(to))).thenReturn(List.of(
+                new OccurrenceRepository.Completion(10L, LocalDateTime.of(2026, 1, 2, 9, 0), completedAt)));
+
+        List<Occurrence> occurrences = service.getOccurrences(USER_ID, from, to);
+
+        // 1/1 9:00 は from より前、1/8 9:00 は to 以降のため含まない
+        assertThat(occurrences).extracting(Occurrence::getOccurrenceStart).containsExactly(
+                LocalDateTime.of(2026, 1, 2, 9, 0),
+                LocalDateTime.of(2026, 1, 3, 9, 0),
+                LocalDateTime.of(2026, 1, 4, 9, 0),
+                LocalDateTime.of(2026, 1, 5, 9, 0),
+                LocalDateTime.of(2026, 1, 5, 10, 0),
+                LocalDateTime.of(2026, 1, 6, 9, 0),
+                LocalDateTime.of(2026, 1, 7, 9, 0));
+        assertThat(occurrences.get(4).getTodo().getId()).isEqualTo(20L);
+        assertThat(occurrences.get(0).getCompletedAt()).isEqualTo(completedAt);
+        assertThat(occurrences).filteredOn(Occurrence::isCompleted).hasSize(1);
+    }
+
+    @Test
+    void getOccurrencesWithoutRulesSkipsCompletionLookup() {
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+        when(todoRepository.findRecurringViewsByUserId(eq(USER_ID), any(), any())).thenReturn(List.of());
+
+        assertThat(service.getOccurrences(USER_ID, from, from.plusDays(1))).isEmpty();
+    }
+
+    @Test
+    void getOccurrencesRejectsEmptyOrTooLongWindow() {
+        LocalDateTime from = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        assertThatThrownBy(() -> service.getOccurrences(USER_ID, from, from))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getOccurrences(USER_ID, from, from.plusDays(93)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static TodoView rule(Long id, Frequency frequency, LocalDateTime startTime) {
+        return new TodoView(id, "rule-" + id, false, startTime, USER_ID, null, null, startTime, frequency, null, null, null);
+    }
+}
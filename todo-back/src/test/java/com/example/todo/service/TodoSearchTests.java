@@ -0,0 +1,86 @@
+package com.example.todo.service;
+
+import com.example.todo.dto.TodoView;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ngram の全文索引に対する検索語の扱い（短い語・日本語・記号で区切られた語）とユーザーでの絞り込みを確認する。
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TodoSearchTests {
+
+    private static final Long USER_ID = 1L;
+    private static final Long OTHER_USER_ID = 2L;
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private TodoService todoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        insert(USER_ID, "会議の資料を作る");
+        insert(USER_ID, "Sort mail");
+        insert(USER_ID, "Fix e-mail template");
+        insert(OTHER_USER_ID, "資料を印刷する");
+        insert(OTHER_USER_ID, "Read mail");
+    }
+
+    @Test
+    void japaneseTermMatchesAnywhereInTitle() {
+        assertThat(titles("資料")).containsExactly("会議の資料を作る");
+        // 語の途中からでも一致する（前方一致ではなく部分一致）
+        assertThat(titles("議の資")).containsExactly("会議の資料を作る");
+    }
+
+    @Test
+    void singleCharacterTermMatchesByPrefix() {
+        assertThat(titles("資")).containsExactly("会議の資料を作る");
+    }
+
+    @Test
+    void latinTermsContainingStopwordLettersMatch() {
+        // 既定のストップワード（"a", "i"）を含む "ai" も索引に入っている
+        assertThat(titles("mail")).containsExactly("Sort mail", "Fix e-mail template");
+        assertThat(titles("ai")).containsExactly("Sort mail", "Fix e-mail template");
+    }
+
+    @Test
+    void operatorsSplitTermsAndAllTermsAreRequired() {
+        assertThat(titles("e-mail")).containsExactly("Fix e-mail template");
+        assertThat(titles("sort mail")).containsExactly("Sort mail");
+        assertThat(titles("mail 資料")).isEmpty();
+    }
+
+    private List<String> titles(String q) {
+        return todoService.searchTodos(USER_ID, q, null, null, null, 20).getItems().stream()
+                .map(TodoView::getTitle)
+                .toList();
+    }
+
+    private void insert(Long userId, String title) {
+        jdbcTemplate.update("INSERT INTO todos (title, completed, created_at, user_id) VALUES (?, false, ?, ?)",
+                title, LocalDateTime.now(), userId);
+    }
+}
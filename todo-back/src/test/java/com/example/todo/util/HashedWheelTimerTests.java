@@ -0,0 +1,75 @@
+package com.example.todo.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 期限どおりの実行（1周を超える期限を含む）と取り消しを確認する。
+ */
+class HashedWheelTimerTests {
+
+    // 1周 = 8 tick = 80ms
+    private final HashedWheelTimer timer = new HashedWheelTimer(Duration.ofMillis(10), 8, Runnable::run);
+
+    @AfterEach
+    void tearDown() {
+        timer.close();
+    }
+
+    @Test
+    void runsTaskNoEarlierThanItsDelay() throws InterruptedException {
+        assertFiresAfter(Duration.ofMillis(50));
+    }
+
+    @Test
+    void runsTaskWhoseDelaySpansSeveralRotations() throws InterruptedException {
+        assertFiresAfter(Duration.ofMillis(250));
+    }
+
+    @Test
+    void runsOverdueTaskOnNextTick() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        timer.schedule(fired::countDown, Duration.ofMillis(-100));
+        assertThat(fired.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void cancelledTaskDoesNotRun() throws InterruptedException {
+        AtomicBoolean cancelledRan = new AtomicBoolean();
+        HashedWheelTimer.Timeout timeout = timer.schedule(() -> cancelledRan.set(true), Duration.ofMillis(30));
+        timeout.cancel();
+        CountDownLatch later = new CountDownLatch(1);
+        timer.schedule(later::countDown, Duration.ofMillis(100));
+
+        assertThat(later.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(cancelledRan).isFalse();
+    }
+
+    @Test
+    void rejectsWheelSizeThatIsNotAPowerOfTwo() {
+        assertThatThrownBy(() -> new HashedWheelTimer(Duration.ofMillis(10), 6, Runnable::run))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertFiresAfter(Duration delay) throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(1);
+        long[] firedAt = new long[1];
+        long scheduledAt = System.nanoTime();
+        timer.schedule(() -> {
+            firedAt[0] = System.nanoTime();
+            fired.countDown();
+        }, delay);
+
+        assertThat(fired.await(delay.toMillis() + 1000, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(firedAt[0] - scheduledAt).isGreaterThanOrEqualTo(delay.toNanos());
+    }
+}
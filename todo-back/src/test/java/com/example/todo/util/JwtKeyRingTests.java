@@ -0,0 +1,181 @@
+package com.example.todo.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 署名鍵の選択と、削除された鍵の猶予期間を確認する。
+ */
+class JwtKeyRingTests {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final MutableClock clock = new MutableClock(START);
+    private final AtomicReference<String> keys = new AtomicReference<>("");
+    private final AtomicReference<String> activeKid = new AtomicReference<>("");
+
+    private JwtKeyRing keyRing() {
+        JwtKeyRing keyRing = new JwtKeyRing(keys::get, activeKid::get, "", "", "",
+                Duration.ofMinutes(2), Duration.ofDays(1), clock);
+        keyRing.init();
+        return keyRing;
+    }
+
+    @Test
+    void appendedKeyWithoutNotBeforeIsNotPromoted() {
+        keys.set(key("k1", 1));
+        JwtKeyRing keyRing = keyRing();
+
+        keys.set(key("k1", 1) + "," + key("k2", 2));
+        clock.advance(Duration.ofDays(30));
+        keyRing.refresh();
+
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k1");
+        assertThat(keyRing.isTrusted("k2")).isTrue();
+    }
+
+    @Test
+    void activeKidSelectsKeyAfterRefresh() {
+        keys.set(key("k1", 1) + "," + key("k2", 2));
+        JwtKeyRing keyRing = keyRing();
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k1");
+
+        activeKid.set("k2");
+        keyRing.refresh();
+
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k2");
+    }
+
+    @Test
+    void keyWithNotBeforeIsPromotedOnlyAfterThatTime() {
+        long notBefore = START.plus(Duration.ofHours(1)).getEpochSecond();
+        keys.set(key("k1", 1) + "," + key("k2", 2) + ":" + notBefore);
+        JwtKeyRing keyRing = keyRing();
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k1");
+
+        clock.advance(Duration.ofMinutes(59));
+        keyRing.refresh();
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k1");
+
+        clock.advance(Duration.ofMinutes(1));
+        keyRing.refresh();
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k2");
+    }
+
+    @Test
+    void newestActivatedKeyWins() {
+        long first = START.minus(Duration.ofHours(2)).getEpochSecond();
+        long second = START.minus(Duration.ofHours(1)).getEpochSecond();
+        long future = START.plus(Duration.ofHours(1)).getEpochSecond();
+        keys.set(key("k1", 1) + ":" + first + "," + key("k3", 3) + ":" + future + "," + key("k2", 2) + ":" + second);
+
+        assertThat(keyRing().signingKey().kid()).isEqualTo("k2");
+    }
+
+    @Test
+    void removedKeyIsTrustedUntilGraceEnds() {
+        keys.set(key("k1", 1) + "," + key("k2", 2));
+        activeKid.set("k2");
+        JwtKeyRing keyRing = keyRing();
+
+        keys.set(key("k2", 2));
+        keyRing.refresh();
+        assertThat(keyRing.isTrusted("k1")).isTrue();
+
+        clock.advance(Duration.ofHours(23));
+        keyRing.refresh();
+        assertThat(keyRing.isTrusted("k1")).isTrue();
+
+        clock.advance(Duration.ofHours(1));
+        keyRing.refresh();
+        assertThat(keyRing.isTrusted("k1")).isFalse();
+        assertThat(keyRing.isTrusted("k2")).isTrue();
+    }
+
+    @Test
+    void keyRemovedAgainGetsAFreshGraceWindow() {
+        keys.set(key("k1", 1) + "," + key("k2", 2));
+        activeKid.set("k2");
+        JwtKeyRing keyRing = keyRing();
+
+        keys.set(key("k2", 2));
+        keyRing.refresh();
+        clock.advance(Duration.ofHours(12));
+        keys.set(key("k1", 1) + "," + key("k2", 2));
+        keyRing.refresh();
+
+        keys.set(key("k2", 2));
+        clock.advance(Duration.ofHours(12));
+        keyRing.refresh();
+        clock.advance(Duration.ofHours(23));
+        keyRing.refresh();
+        assertThat(keyRing.isTrusted("k1")).isTrue();
+    }
+
+    @Test
+    void keysFileChangesArePickedUpOnRefresh(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("jwt.keys");
+        Files.writeString(file, key("k1", 1) + "\n");
+        JwtKeyRing keyRing = new JwtKeyRing(() -> "", () -> "", file.toString(), "", "",
+                Duration.ofMinutes(2), Duration.ofDays(1), clock);
+        keyRing.init();
+
+        long notBefore = START.plus(Duration.ofMinutes(5)).getEpochSecond();
+        Files.writeString(file, key("k1", 1) + "\n" + key("k2", 2) + ":" + notBefore + "\n");
+        keyRing.refresh();
+        assertThat(keyRing.isTrusted("k2")).isTrue();
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k1");
+
+        clock.advance(Duration.ofMinutes(5));
+        keyRing.refresh();
+        assertThat(keyRing.signingKey().kid()).isEqualTo("k2");
+    }
+
+    private static String key(String kid, int fill) {
+        byte[] secret = new byte[32];
+        Arrays.fill(secret, (byte) fill);
+        return kid + ":" + Base64.getEncoder().encodeToString(secret);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
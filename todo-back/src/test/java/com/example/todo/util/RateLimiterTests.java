@@ -0,0 +1,92 @@
+package com.example.todo.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * GCRA の判定が、毎秒 rate 個補充され最大 burst 個まで溜まるトークンバケットと一致することを確認する。
+ */
+class RateLimiterTests {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    // 毎秒 10 個（100ms ごとに1個）、最大 3 個
+    private final RateLimiter limiter = new RateLimiter(10, 3, Duration.ofMinutes(10), 1000, now::get);
+
+    @Test
+    void allowsBurstThenReportsWaitUntilNextToken() {
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        assertThat(limiter.tryAcquire("a")).isEqualTo(INTERVAL);
+        // 拒否はトークンを消費しない
+        assertThat(limiter.tryAcquire("a")).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void allowsAgainAfterReportedWait() {
+        drain("a");
+        long wait = limiter.tryAcquire("a");
+
+        now.addAndGet(wait - 1);
+        assertThat(limiter.tryAcquire("a")).isEqualTo(1);
+        now.addAndGet(1);
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isEqualTo(INTERVAL);
+    }
+
+    @Test
+    void sustainsConfiguredRate() {
+        drain("a");
+        int allowed = 0;
+        for (int i = 0; i < 50; i++) {
+            now.addAndGet(INTERVAL / 2);
+            if (limiter.tryAcquire("a") == 0) {
+                allowed++;
+            }
+        }
+        // 2.5 秒で 25 個補充される
+        assertThat(allowed).isEqualTo(25);
+    }
+
+    @Test
+    void idleBucketRefillsOnlyUpToBurst() {
+        drain("a");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertThat(drain("a")).isEqualTo(3);
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        drain("a");
+
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void rejectsNonPositiveRateOrBurst() {
+        assertThatThrownBy(() -> new RateLimiter(0, 1, Duration.ofMinutes(1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(1, 0, Duration.ofMinutes(1), 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // 取得できなくなるまで取得し、取得できた数を返す
+    private int drain(String key) {
+        int acquired = 0;
+        while (limiter.tryAcquire(key) == 0) {
+            acquired++;
+        }
+        return acquired;
+    }
+}
@@ -1,6 +1,6 @@
 // app/lib/api.ts
 import type { Folder } from "@/app/types/Folder";
-import type { Task } from "@/app/types/Task";
+import type { DisplayTask, Task } from "@/app/types/Task";
 
 export const API_URL =
 	process.env.NEXT_PUBLIC_API_URL || "http://localhost:8080";
@@ -150,10 +150,10 @@ export async function fetchTasks(
 	return res.json();
 }
 
-//タスク編集
+//タスク編集（応答は変更した項目だけ。他の項目は一覧を再取得して得る）
 export async function updateTask(
 	task: Partial<Task> & { id: number },
-): Promise<Task> {
+): Promise<Pick<Task, "id" | "title">> {
 	const token = getAuthToken();
 	const res = await fetch(`${API_URL}/api/todos/${task.id}`, {
 		method: "PUT",
@@ -201,12 +201,12 @@ export async function deleteTask(taskId: number): Promise<void> {
 /**
  * タスク完了状態の切替
  * @param taskId タスクID
- * @returns 更新後のタスク
+ * @returns 変更後の完了状態（タスク全体は返らない）
  */
 export async function updateTaskCompletion(
 	taskId: number,
 	completed: boolean,
-): Promise<Task> {
+): Promise<Pick<DisplayTask, "id" | "completed">> {
 	const token = getAuthToken();
 	const endpoint = completed ? "complete" : "incomplete";
 	const res = await fetch(`${API_URL}/api/todos/${taskId}/${endpoint}`, {